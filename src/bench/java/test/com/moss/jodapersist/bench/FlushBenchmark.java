@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.joda.time.TimeOfDay;
+import org.joda.time.YearMonthDay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import test.com.moss.jodapersist.PersistedTemporals;
+
+import com.moss.jodapersist.JodaTypes;
+
+/**
+ * Measures flushing a session full of unchanged entities, which is all dirty checking.
+ * Before each flush every temporal property is replaced with an equal but distinct
+ * value, as when a form or remote call rebuilds an entity's values, so that each check
+ * has to compare the values rather than find them identical.  Reported per entity.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlushBenchmark {
+	private static final int ENTITIES = 10000;
+	
+	public enum Mapping {
+		USER_TYPES(
+			"com.moss.jodapersist.BigintInstantUserType",
+			"com.moss.jodapersist.IntegerYearMonthDayUserType",
+			"com.moss.jodapersist.NumericTimeOfDayUserType",
+			"com.moss.jodapersist.BigintDurationUserType"),
+		TYPES(
+			"instant_bigint",
+			"yearmonthday_integer",
+			"timeofday_numeric",
+			"duration_bigint");
+		
+		final String instant, yearMonthDay, timeOfDay, duration;
+		
+		Mapping(String instant, String yearMonthDay, String timeOfDay, String duration) {
+			this.instant = instant;
+			this.yearMonthDay = yearMonthDay;
+			this.timeOfDay = timeOfDay;
+			this.duration = duration;
+		}
+		
+		String toXml() {
+			return "<?xml version=\"1.0\"?>" +
+				"<!DOCTYPE hibernate-mapping PUBLIC \"-//Hibernate/Hibernate Mapping DTD 3.0//EN\" \"http://hibernate.sourceforge.net/hibernate-mapping-3.0.dtd\">" +
+				"<hibernate-mapping package=\"test.com.moss.jodapersist\">" +
+				"<class name=\"PersistedTemporals\" table=\"persisted_temporals\">" +
+				"<id name=\"id\" column=\"id\" type=\"long\"><generator class=\"increment\"/></id>" +
+				"<property name=\"instant\" column=\"instant\" type=\"" + instant + "\"/>" +
+				"<property name=\"yearMonthDay\" column=\"ymd\" type=\"" + yearMonthDay + "\"/>" +
+				"<property name=\"timeOfDay\" column=\"tmd\" type=\"" + timeOfDay + "\"/>" +
+				"<property name=\"duration\" column=\"duration\" type=\"" + duration + "\"/>" +
+				"</class>" +
+				"</hibernate-mapping>";
+		}
+	}
+	
+	@Param
+	Mapping mapping;
+	
+	private SessionFactory sessionFactory;
+	private Session session;
+	private List entities;
+	
+	@Setup
+	public void setUp() throws Exception {
+		Logger.getLogger("org.hibernate").setLevel(org.apache.log4j.Level.WARN);
+		
+		Configuration configuration = new Configuration()
+			.setProperty("hibernate.connection.driver_class","org.hsqldb.jdbcDriver")
+			.setProperty("hibernate.dialect","org.hibernate.dialect.HSQLDialect")
+			.setProperty("hibernate.connection.url","jdbc:hsqldb:mem:flush_" + mapping.name().toLowerCase())
+			.setProperty("hibernate.connection.username","sa")
+			.setProperty("hibernate.connection.password","")
+			.setProperty("hibernate.connection.pool_size", "1")
+			.setProperty("hibernate.hbm2ddl.auto","create-drop")
+			.setProperty("hibernate.jdbc.batch_size", "100");
+		sessionFactory = JodaTypes.registerTypeDefs(configuration)
+			.addXML(mapping.toXml())
+			.buildSessionFactory();
+		
+		Session loader = sessionFactory.openSession();
+		loader.beginTransaction();
+		for (int i = 0; i < ENTITIES; i++) {
+			PersistedTemporals entity = new PersistedTemporals();
+			replaceValues(entity, i);
+			loader.save(entity);
+		}
+		loader.getTransaction().commit();
+		loader.close();
+		
+		session = sessionFactory.openSession();
+		session.setFlushMode(FlushMode.NEVER);
+		entities = session.createQuery("from PersistedTemporals").list();
+	}
+	
+	@Setup(Level.Invocation)
+	public void replaceValues() {
+		for (int i = 0; i < ENTITIES; i++) {
+			replaceValues((PersistedTemporals)entities.get(i), i);
+		}
+	}
+	
+	@TearDown
+	public void tearDown() {
+		session.close();
+		sessionFactory.close();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(ENTITIES)
+	public void flush() {
+		session.flush();
+	}
+	
+	private static void replaceValues(PersistedTemporals entity, int i) {
+		entity.setInstant(new Instant(TypeFixture.SAMPLE_MILLIS + i * 1000L));
+		entity.setYearMonthDay(new YearMonthDay(2006, 5, 1 + i % 28));
+		entity.setTimeOfDay(new TimeOfDay(i % 24, i % 60, i % 60));
+		entity.setDuration(new Duration(i * 60 * 1000L));
+	}
+}
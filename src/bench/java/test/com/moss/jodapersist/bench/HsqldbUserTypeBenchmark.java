@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist.bench;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.usertype.UserType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the user types against an in-memory HSQLDB, driver overhead included.
+ * hydrate() is reported per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HsqldbUserTypeBenchmark {
+	private static final int ROWS = 1000;
+	
+	@Param
+	TypeFixture fixture;
+	
+	private Connection connection;
+	private UserType userType;
+	private Object value;
+	private String[] names;
+	private PreparedStatement select;
+	private PreparedStatement insert;
+	
+	@Setup
+	public void setUp() throws Exception {
+		userType = fixture.configuredUserType();
+		value = fixture.sampleValue();
+		names = fixture.columnNames();
+		
+		Class.forName("org.hsqldb.jdbcDriver");
+		connection = DriverManager.getConnection("jdbc:hsqldb:mem:bench_" + fixture.name().toLowerCase(), "sa", "");
+		
+		String[] definitions = fixture.columnDefinitions();
+		StringBuffer columns = new StringBuffer();
+		StringBuffer parameters = new StringBuffer();
+		for (int i = 0; i < names.length; i++) {
+			if (i > 0) {
+				columns.append(", ");
+				parameters.append(", ");
+			}
+			columns.append(names[i]).append(' ').append(definitions[i]);
+			parameters.append('?');
+		}
+		
+		Statement ddl = connection.createStatement();
+		ddl.execute("drop table bench if exists");
+		ddl.execute("create table bench (" + columns + ")");
+		ddl.close();
+		
+		insert = connection.prepareStatement("insert into bench values (" + parameters + ")");
+		for (int i = 0; i < ROWS; i++) {
+			userType.nullSafeSet(insert, value, 1);
+			insert.executeUpdate();
+		}
+		
+		select = connection.prepareStatement("select * from bench");
+	}
+	
+	@TearDown
+	public void tearDown() throws Exception {
+		connection.createStatement().execute("shutdown");
+		connection.close();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void hydrate(Blackhole blackhole) throws Exception {
+		ResultSet resultSet = select.executeQuery();
+		while (resultSet.next()) {
+			blackhole.consume(userType.nullSafeGet(resultSet, names, null));
+		}
+		resultSet.close();
+	}
+	
+	@Benchmark
+	public PreparedStatement nullSafeSet() throws Exception {
+		userType.nullSafeSet(insert, value, 1);
+		return insert;
+	}
+}
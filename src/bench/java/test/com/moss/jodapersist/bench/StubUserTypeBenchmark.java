@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.usertype.UserType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import test.com.moss.jodapersist.StubPreparedStatement;
+import test.com.moss.jodapersist.StubResultSet;
+
+/**
+ * Measures nullSafeGet/nullSafeSet against in-memory JDBC stubs, so that what is left is
+ * the cost of the user type itself.  Run with -prof gc for allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StubUserTypeBenchmark {
+	
+	@Param
+	TypeFixture fixture;
+	
+	private UserType userType;
+	private Object value;
+	private Object copy;
+	private String[] names;
+	private StubResultSet resultSet;
+	private StubPreparedStatement statement;
+	
+	@Setup
+	public void setUp() throws Exception {
+		userType = fixture.configuredUserType();
+		value = fixture.sampleValue();
+		copy = fixture.sampleValue();
+		names = fixture.columnNames();
+		resultSet = new StubResultSet(names, fixture.boundValues());
+		statement = new StubPreparedStatement(names.length);
+	}
+	
+	@Benchmark
+	public Object nullSafeGet() throws Exception {
+		return userType.nullSafeGet(resultSet, names, null);
+	}
+	
+	/**
+	 * Dirty checking's comparison of a loaded value with an equal but distinct one.
+	 */
+	@Benchmark
+	public boolean equals() throws Exception {
+		return userType.equals(value, copy);
+	}
+	
+	/**
+	 * The value's own equals, for comparison with {@link #equals()}.
+	 */
+	@Benchmark
+	public boolean valueEquals() {
+		return value.equals(copy);
+	}
+	
+	@Benchmark
+	public StubPreparedStatement nullSafeSet() throws Exception {
+		userType.nullSafeSet(statement, value, 1);
+		return statement;
+	}
+}
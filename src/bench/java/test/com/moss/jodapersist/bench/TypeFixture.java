@@ -0,0 +1,244 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist.bench;
+
+import java.sql.Types;
+import java.util.Properties;
+
+import org.hibernate.usertype.ParameterizedType;
+import org.hibernate.usertype.UserType;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.joda.time.Period;
+import org.joda.time.TimeOfDay;
+import org.joda.time.YearMonthDay;
+
+import test.com.moss.jodapersist.StubPreparedStatement;
+
+import com.moss.jodapersist.AnsiTimeOfDay;
+import com.moss.jodapersist.BigintDurationUserType;
+import com.moss.jodapersist.BigintInstantUserType;
+import com.moss.jodapersist.DateYearMonthDayUserType;
+import com.moss.jodapersist.DurationUserType;
+import com.moss.jodapersist.EpochDayYearMonthDayUserType;
+import com.moss.jodapersist.InstantUserType;
+import com.moss.jodapersist.IntegerYearMonthDayUserType;
+import com.moss.jodapersist.NumericTimeOfDayUserType;
+import com.moss.jodapersist.NumericYearMonthDayUserType;
+import com.moss.jodapersist.PeriodUserType;
+import com.moss.jodapersist.SplitHoursMinutesDurationUserType;
+import com.moss.jodapersist.StringTimeOfDayUserType;
+import com.moss.jodapersist.StringYearMonthDayUserType;
+import com.moss.jodapersist.TimestampInstantUserType;
+import com.moss.jodapersist.TimestampTimeOfDayUserType;
+import com.moss.jodapersist.TimestampYearMonthDayUserType;
+
+/**
+ * One entry per user type/sqltype combination that the benchmarks exercise, along with
+ * a representative value to hydrate and bind.
+ */
+public enum TypeFixture {
+	INSTANT_NUMERIC {
+		UserType newUserType() { return new InstantUserType(); }
+		Object sampleValue() { return new Instant(SAMPLE_MILLIS); }
+	},
+	INSTANT_BIGINT {
+		UserType newUserType() { return new BigintInstantUserType(); }
+		Object sampleValue() { return new Instant(SAMPLE_MILLIS); }
+	},
+	INSTANT_TIMESTAMP {
+		UserType newUserType() { return new TimestampInstantUserType(); }
+		Object sampleValue() { return new Instant(SAMPLE_MILLIS); }
+	},
+	YEAR_MONTH_DAY_NUMERIC {
+		UserType newUserType() { return new NumericYearMonthDayUserType(); }
+		Object sampleValue() { return new YearMonthDay(2006, 5, 1); }
+	},
+	YEAR_MONTH_DAY_INTEGER {
+		UserType newUserType() { return new IntegerYearMonthDayUserType(); }
+		Object sampleValue() { return new YearMonthDay(2006, 5, 1); }
+	},
+	YEAR_MONTH_DAY_EPOCH_DAY {
+		UserType newUserType() { return new EpochDayYearMonthDayUserType(); }
+		Object sampleValue() { return new YearMonthDay(2006, 5, 1); }
+	},
+	YEAR_MONTH_DAY_DATE {
+		UserType newUserType() { return new DateYearMonthDayUserType(); }
+		Object sampleValue() { return new YearMonthDay(2006, 5, 1); }
+	},
+	YEAR_MONTH_DAY_NUMERIC_CACHED {
+		UserType newUserType() { return new NumericYearMonthDayUserType(); }
+		Object sampleValue() { return new YearMonthDay(2006, 5, 1); }
+		UserType configuredUserType() {
+			Properties p = new Properties();
+			p.setProperty("cacheSize", "4096");
+			UserType userType = newUserType();
+			((ParameterizedType)userType).setParameterValues(p);
+			return userType;
+		}
+	},
+	YEAR_MONTH_DAY_STRING {
+		UserType newUserType() { return new StringYearMonthDayUserType(); }
+		Object sampleValue() { return new YearMonthDay(2006, 5, 1); }
+	},
+	YEAR_MONTH_DAY_TIMESTAMP {
+		UserType newUserType() { return new TimestampYearMonthDayUserType(); }
+		Object sampleValue() { return new YearMonthDay(2006, 5, 1); }
+	},
+	TIME_OF_DAY_ANSI {
+		UserType newUserType() { return new AnsiTimeOfDay(); }
+		Object sampleValue() { return new TimeOfDay(5, 30, 15); }
+	},
+	TIME_OF_DAY_STRING {
+		UserType newUserType() { return new StringTimeOfDayUserType(); }
+		Object sampleValue() { return new TimeOfDay(5, 30); }
+	},
+	TIME_OF_DAY_NUMERIC {
+		UserType newUserType() { return new NumericTimeOfDayUserType(); }
+		Object sampleValue() { return new TimeOfDay(5, 30, 15, 2); }
+	},
+	TIME_OF_DAY_TIMESTAMP {
+		UserType newUserType() { return new TimestampTimeOfDayUserType(); }
+		Object sampleValue() { return new TimeOfDay(5, 30, 15, 2); }
+	},
+	TIME_OF_DAY_TIMESTAMP_ANCHORED {
+		UserType newUserType() { return new TimestampTimeOfDayUserType(); }
+		Object sampleValue() { return new TimeOfDay(5, 30, 15, 2); }
+		UserType configuredUserType() {
+			Properties p = new Properties();
+			p.setProperty("anchorDate", "1970-01-01");
+			UserType userType = newUserType();
+			((ParameterizedType)userType).setParameterValues(p);
+			return userType;
+		}
+	},
+	DURATION {
+		UserType newUserType() { return new DurationUserType(); }
+		Object sampleValue() { return new Duration(90 * 60 * 1000L); }
+	},
+	DURATION_BIGINT {
+		UserType newUserType() { return new BigintDurationUserType(); }
+		Object sampleValue() { return new Duration(90 * 60 * 1000L); }
+	},
+	SPLIT_HOURS_MINUTES {
+		UserType newUserType() { return new SplitHoursMinutesDurationUserType(); }
+		Object sampleValue() { return new Period(1, 30, 0, 0); }
+	},
+	PERIOD_BIGINT {
+		UserType newUserType() { return new PeriodUserType(); }
+		Object sampleValue() { return new Period(0, 1, 0, 2, 1, 30, 0, 0); }
+	},
+	PERIOD_INTEGER {
+		UserType newUserType() { 
+			Properties p = new Properties();
+			p.setProperty("sqltype", PeriodUserType.DB_FORMAT_INTEGER);
+			PeriodUserType userType = new PeriodUserType();
+			userType.setParameterValues(p);
+			return userType;
+		}
+		Object sampleValue() { return new Period(0, 1, 0, 2, 1, 30, 0, 0); }
+	};
+	
+	static final long SAMPLE_MILLIS = 1146488400000L; // 2006-05-01T09:00:00Z
+	
+	abstract UserType newUserType();
+	abstract Object sampleValue();
+	
+	/**
+	 * @return a user type configured the way a mapping without any &lt;param&gt;s would
+	 */
+	UserType configuredUserType() {
+		UserType userType = newUserType();
+		if (userType instanceof ParameterizedType) {
+			((ParameterizedType)userType).setParameterValues(null);
+		}
+		return userType;
+	}
+	
+	String[] columnNames() {
+		int count = newUserType().sqlTypes().length;
+		String[] names = new String[count];
+		for (int i = 0; i < count; i++) {
+			names[i] = "c" + i;
+		}
+		return names;
+	}
+	
+	/**
+	 * @return the values the user type binds for {@link #sampleValue()}, which is also
+	 * what a driver would hand back when reading the row
+	 */
+	Object[] boundValues() throws Exception {
+		UserType userType = configuredUserType();
+		int count = userType.sqlTypes().length;
+		StubPreparedStatement statement = new StubPreparedStatement(count);
+		userType.nullSafeSet(statement, sampleValue(), 1);
+		
+		Object[] values = new Object[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = statement.getValue(i + 1);
+		}
+		return values;
+	}
+	
+	/**
+	 * @return HSQLDB column definitions matching the user type's sqlTypes()
+	 */
+	String[] columnDefinitions() {
+		int[] types = newUserType().sqlTypes();
+		String[] definitions = new String[types.length];
+		for (int i = 0; i < types.length; i++) {
+			definitions[i] = sqlTypeName(types[i]);
+		}
+		return definitions;
+	}
+	
+	private static String sqlTypeName(int sqlType) {
+		switch (sqlType) {
+			case Types.NUMERIC: return "numeric(19,0)";
+			case Types.BIGINT: return "bigint";
+			case Types.INTEGER: return "integer";
+			case Types.SMALLINT: return "smallint";
+			case Types.TIMESTAMP: return "timestamp";
+			case Types.DATE: return "date";
+			case Types.TIME: return "time";
+			case Types.VARCHAR: return "varchar(32)";
+			default: throw new IllegalArgumentException("No column definition for sql type " + sqlType);
+		}
+	}
+}
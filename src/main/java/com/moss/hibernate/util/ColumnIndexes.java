@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.hibernate.util;
+
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Resolves column aliases to indexes once per ResultSet, so a type reading the same alias
+ * on every row doesn't have the driver look the name up each time.
+ * <p>
+ * 	The first read from a ResultSet maps every column label in its ResultSetMetaData to
+ * 	its index; later reads are a map lookup.  Hibernate reads a ResultSet row by row on
+ * 	one thread, so the last ResultSet read on each thread is checked first.
+ * </p>
+ * <p>
+ * 	Types are shared by every session of a SessionFactory, so the mappings are kept per
+ * 	thread, and for each thread per ResultSet: concurrent queries, and one query reading
+ * 	a property under several aliases, don't evict each other.  The ResultSets are only
+ * 	weakly held so a finished query's entries can be collected.
+ * </p>
+ */
+public final class ColumnIndexes {
+	
+	private static final ThreadLocal<ColumnIndexes> CURRENT = new ThreadLocal<ColumnIndexes>() {
+		protected ColumnIndexes initialValue() {
+			return new ColumnIndexes();
+		}
+	};
+	
+	private final Map<ResultSet, Map<String, Integer>> resultSets = new WeakHashMap<ResultSet, Map<String, Integer>>();
+	
+	private WeakReference<ResultSet> last = new WeakReference<ResultSet>(null);
+	
+	private Map<String, Integer> lastColumns;
+	
+	private ColumnIndexes() {}
+	
+	/**
+	 * @return the index of the first column whose label matches the alias, ignoring case
+	 * 	as {@link ResultSet#findColumn(String)} does
+	 */
+	public static int indexOf(ResultSet resultSet, String columnName) throws SQLException {
+		return CURRENT.get().resolve(resultSet, columnName);
+	}
+	
+	private int resolve(ResultSet resultSet, String columnName) throws SQLException {
+		Map<String, Integer> columns = lastColumns;
+		if (last.get() != resultSet) {
+			columns = resultSets.get(resultSet);
+			if (columns == null) {
+				columns = labels(resultSet.getMetaData());
+				resultSets.put(resultSet, columns);
+			}
+			last = new WeakReference<ResultSet>(resultSet);
+			lastColumns = columns;
+		}
+		
+		Integer index = columns.get(columnName);
+		if (index == null) {
+			index = Integer.valueOf(match(resultSet, columnName));
+			columns.put(columnName, index);
+		}
+		return index.intValue();
+	}
+	
+	private static Map<String, Integer> labels(ResultSetMetaData metaData) throws SQLException {
+		int count = metaData.getColumnCount();
+		Map<String, Integer> labels = new HashMap<String, Integer>(count * 2);
+		for (int i = count; i > 0; i--) {
+			labels.put(metaData.getColumnLabel(i), Integer.valueOf(i));
+		}
+		return labels;
+	}
+	
+	/**
+	 * Resolves an alias which differs from its column's label, e.g. in case.  Done once
+	 * per alias and ResultSet.
+	 */
+	private static int match(ResultSet resultSet, String columnName) throws SQLException {
+		ResultSetMetaData metaData = resultSet.getMetaData();
+		int count = metaData.getColumnCount();
+		for (int i = 1; i <= count; i++) {
+			if (columnName.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+				return i;
+			}
+		}
+		return resultSet.findColumn(columnName);
+	}
+}
@@ -45,6 +45,10 @@ import java.sql.SQLException;
 import org.hibernate.HibernateException;
 import org.hibernate.usertype.UserType;
 
+/**
+ * Base class for single-column immutable user types.  Subclasses which would rather read
+ * the column by index can extend {@link IndexedImmutableUserType} instead.
+ */
 public abstract class QuickImmutableUserType implements UserType {
 	private int sqlType;
 	private int[] types;
@@ -65,7 +69,7 @@ public abstract class QuickImmutableUserType implements UserType {
 		return false;
 	}
 
-	public final Object assemble(Serializable arg0, Object arg1) throws HibernateException {
+	public Object assemble(Serializable arg0, Object arg1) throws HibernateException {
 		return arg0;
 	}
 
@@ -74,11 +78,11 @@ public abstract class QuickImmutableUserType implements UserType {
 		else return arg0;
 	}
 
-	public final Serializable disassemble(Object arg0) throws HibernateException {
+	public Serializable disassemble(Object arg0) throws HibernateException {
 		return (Serializable)arg0;
 	}
 
-	public final boolean equals(Object arg0, Object arg1) throws HibernateException {
+	public boolean equals(Object arg0, Object arg1) throws HibernateException {
 
 		if (arg0 == null && arg1 == null) {
 			return true;
@@ -89,7 +93,7 @@ public abstract class QuickImmutableUserType implements UserType {
 		}
 	}
 
-	public final int hashCode(Object arg0) throws HibernateException {
+	public int hashCode(Object arg0) throws HibernateException {
 		return arg0.hashCode();
 	}
 
@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.hibernate.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+/**
+ * <p>
+ * 	Iterates a query's results one row at a time over a forward-only ScrollableResults,
+ * 	so that only about a fetch size worth of rows is ever in memory.  Rows with a single
+ * 	column are returned as that column's value, others as Object[].
+ * </p>
+ * <p>
+ * 	When given a Session, the entities of each row are evicted from it as soon as the
+ * 	next row is requested; a row shouldn't be kept around (or modified) past that point.
+ * 	Eviction only reaches associations mapped with cascade="evict"; whatever a row loaded
+ * 	through its other associations stays in the session.  Where that would grow too 
+ * 	large, {@link #scrollAndClear(Session, Query, int)} clears the whole session instead.
+ * 	Queries created from a StatelessSession need no eviction.
+ * </p>
+ * <pre>
+ * ScrollingResults rows = ScrollingResults.scroll(session, query, 500);
+ * try {
+ * 	while (rows.hasNext()) {
+ * 		Trade trade = (Trade)rows.next();
+ * 		...
+ * 	}
+ * }
+ * finally {
+ * 	rows.close();
+ * }
+ * </pre>
+ */
+public class ScrollingResults implements Iterator {
+	private final ScrollableResults results;
+	private final Session session;
+	
+	/**
+	 * How many rows apart the session is cleared, 0 for never
+	 */
+	private final int clearEvery;
+	private Object[] current;
+	private int uncleared;
+	private boolean advanced, exhausted, closed;
+	
+	private ScrollingResults(ScrollableResults results, Session session, int clearEvery) {
+		this.results = results;
+		this.session = session;
+		this.clearEvery = clearEvery;
+	}
+	
+	/**
+	 * Scrolls without evicting anything, e.g. for a query from a StatelessSession or one
+	 * that only selects values.
+	 */
+	public static ScrollingResults scroll(Query query, int fetchSize) throws HibernateException {
+		return scroll(null, query, fetchSize);
+	}
+	
+	/**
+	 * @param session the session the query was created from, which each row's entities
+	 * 	are evicted from once the iteration moves past it
+	 */
+	public static ScrollingResults scroll(Session session, Query query, int fetchSize) throws HibernateException {
+		return scroll(session, query, fetchSize, 0);
+	}
+	
+	/**
+	 * Like {@link #scroll(Session, Query, int)}, but also clears the session every 
+	 * fetchSize rows and once more on close, which drops what the rows loaded through
+	 * associations that evict doesn't cascade to.
+	 * <p>
+	 * 	<b>Clearing detaches everything in the session, not just the scrolled rows, and 
+	 * 	discards unflushed changes.</b>  Only use it on a session that holds nothing else,
+	 * 	or flush first and don't touch previously loaded entities afterwards.
+	 * </p>
+	 */
+	public static ScrollingResults scrollAndClear(Session session, Query query, int fetchSize) throws HibernateException {
+		if (session == null) {
+			throw new IllegalArgumentException("No session to clear");
+		}
+		return scroll(session, query, fetchSize, fetchSize);
+	}
+	
+	private static ScrollingResults scroll(Session session, Query query, int fetchSize, int clearEvery) throws HibernateException {
+		if (fetchSize <= 0) {
+			throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+		}
+		query.setFetchSize(fetchSize);
+		return new ScrollingResults(query.scroll(ScrollMode.FORWARD_ONLY), session, clearEvery);
+	}
+	
+	public boolean hasNext() throws HibernateException {
+		if (!advanced && !exhausted) {
+			evictCurrent();
+			if (clearEvery > 0 && uncleared >= clearEvery) {
+				clearSession();
+			}
+			if (results.next()) {
+				current = results.get();
+				uncleared++;
+			}
+			else {
+				close();
+			}
+			advanced = true;
+		}
+		return !exhausted;
+	}
+	
+	public Object next() throws HibernateException {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		advanced = false;
+		return current.length == 1 ? current[0] : current;
+	}
+	
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+	
+	/**
+	 * Evicts the last row (and, for {@link #scrollAndClear(Session, Query, int)}, clears
+	 * the session) and releases the underlying cursor; safe to call more than once.
+	 */
+	public void close() throws HibernateException {
+		evictCurrent();
+		if (clearEvery > 0 && uncleared > 0) {
+			clearSession();
+		}
+		if (!closed) {
+			closed = true;
+			exhausted = true;
+			results.close();
+		}
+	}
+	
+	private void evictCurrent() {
+		if (session != null && current != null) {
+			for (int i = 0; i < current.length; i++) {
+				if (current[i] != null && session.contains(current[i])) {
+					session.evict(current[i]);
+				}
+			}
+		}
+		current = null;
+	}
+	
+	private void clearSession() {
+		session.clear();
+		uncleared = 0;
+	}
+}
@@ -37,45 +37,13 @@
  */
 package com.moss.jodapersist;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Time;
-import java.sql.Timestamp;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
-
-import org.hibernate.HibernateException;
-import org.joda.time.DateTimeZone;
-import org.joda.time.TimeOfDay;
-
+/**
+ * Persists a org.joda.time.TimeOfDay as an ANSI TIME, through java.sql.Time values
+ * holding the time on 1970-01-01 in the JVM's zone.  Milliseconds are kept as far as the
+ * driver keeps them.
+ */
 public class AnsiTimeOfDay extends TimeOfDayUserType {
-
-	public int[] sqlTypes() {
-		return TimeOfDayUserType.DB_FORMAT_TIMEOFDAY_TYPES;
-	}
-	
-	public Object nullSafeGet(ResultSet resultSet, String[] names, Object arg2) throws HibernateException, SQLException {
-		String time = resultSet.getString(names[0]);
-		if (time == null) return null;
-		
-		return new TimeOfDay(time);
+	public AnsiTimeOfDay() {
+		super(TimeOfDayUserType.DB_FORMAT_TIME);
 	}
-	
-	public void nullSafeSet(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException 
-		{
-		if (value == null){
-			statement.setTimestamp(index, null);
-		}else {
-			TimeOfDay tmd = (TimeOfDay)value;
-			
-			long millisInZone = tmd.toDateTimeToday(DateTimeZone.forTimeZone(timeZone)).getMillis();
-			Timestamp timestamp = new Timestamp(millisInZone);
-			
-			Time time = new Time(tmd.getHourOfDay(), tmd.getMinuteOfHour(), tmd.getSecondOfMinute());
-			
-			statement.setTime(index, time);	
-		}
-	}
-
 }
@@ -0,0 +1,271 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.joda.time.YearMonthDay;
+
+/**
+ * <p>
+ * 	Binds whole columns of values into a PreparedStatement as a JDBC batch, encoding them
+ * 	exactly the way the corresponding user type's nullSafeSet would.  Each column is
+ * 	given as an array with one entry per row, either of the Joda values (where null
+ * 	entries bind sql nulls) or of their primitive encodings: epoch millis for instants and
+ * 	durations, packed yyyymmdd for dates.
+ * </p>
+ * <pre>
+ * BatchBinder batch = new BatchBinder(statement);
+ * batch.bind(1, instantType, createdMillis);
+ * batch.bind(2, yearMonthDayType, businessDates);
+ * batch.bind(3, accountIds);
+ * batch.addBatch(0, rows);
+ * statement.executeBatch();
+ * </pre>
+ * <p>
+ * 	Not thread-safe; use one per statement.
+ * </p>
+ */
+public class BatchBinder {
+	private final PreparedStatement statement;
+	private final List<Column> columns = new ArrayList<Column>();
+	
+	public BatchBinder(PreparedStatement statement) {
+		this.statement = statement;
+	}
+	
+	public void bind(int index, InstantUserType type, Instant[] values) {
+		add(new Instants(index, type.getCodec(), values), values.length);
+	}
+	
+	/**
+	 * @param millis milliseconds since the epoch
+	 */
+	public void bind(int index, InstantUserType type, long[] millis) {
+		add(new InstantMillis(index, type.getCodec(), millis), millis.length);
+	}
+	
+	public void bind(int index, YearMonthDayUserType type, YearMonthDay[] values) {
+		add(new YearMonthDays(index, type.getCodec(), values), values.length);
+	}
+	
+	/**
+	 * @param yearMonthDays packed yyyymmdd values, as {@link YearMonthDayUserType#yearMonthDayToLong(YearMonthDay)} gives
+	 */
+	public void bind(int index, YearMonthDayUserType type, int[] yearMonthDays) {
+		add(new PackedYearMonthDays(index, type.getCodec(), yearMonthDays), yearMonthDays.length);
+	}
+	
+	public void bind(int index, DurationUserType type, Duration[] values) {
+		add(new Durations(index, type.sqlTypes()[0], values), values.length);
+	}
+	
+	/**
+	 * @param millis duration lengths in milliseconds
+	 */
+	public void bind(int index, DurationUserType type, long[] millis) {
+		add(new Longs(index, millis), millis.length);
+	}
+	
+	/**
+	 * Binds a plain BIGINT/NUMERIC column, e.g. a key, alongside the temporal ones.
+	 */
+	public void bind(int index, long[] values) {
+		add(new Longs(index, values), values.length);
+	}
+	
+	/**
+	 * Binds the rows from (inclusive) to to (exclusive) of every column, calling
+	 * addBatch() after each row.
+	 * 
+	 * @return the number of rows added to the batch
+	 */
+	public int addBatch(int from, int to) throws SQLException {
+		if (from < 0 || from > to) {
+			throw new IllegalArgumentException("Invalid rows " + from + " to " + to);
+		}
+		Column[] columns = this.columns.toArray(new Column[this.columns.size()]);
+		for (int i = 0; i < columns.length; i++) {
+			if (to > columns[i].length) {
+				throw new IllegalArgumentException("Column " + columns[i].index + " has only " + columns[i].length + " rows");
+			}
+		}
+		
+		for (int row = from; row < to; row++) {
+			for (int i = 0; i < columns.length; i++) {
+				columns[i].bind(statement, row);
+			}
+			statement.addBatch();
+		}
+		return to - from;
+	}
+	
+	/**
+	 * Forgets the bound columns, so the binder can be reused for the next chunk.
+	 */
+	public void clear() {
+		columns.clear();
+	}
+	
+	private void add(Column column, int length) {
+		column.length = length;
+		columns.add(column);
+	}
+	
+	private static abstract class Column {
+		final int index;
+		int length;
+		
+		Column(int index) {
+			this.index = index;
+		}
+		
+		abstract void bind(PreparedStatement statement, int row) throws SQLException;
+	}
+	
+	private static final class Instants extends Column {
+		private final InstantCodec codec;
+		private final Instant[] values;
+		
+		Instants(int index, InstantCodec codec, Instant[] values) {
+			super(index);
+			this.codec = codec;
+			this.values = values;
+		}
+		
+		void bind(PreparedStatement statement, int row) throws SQLException {
+			Instant value = values[row];
+			if (value == null) {
+				statement.setNull(index, codec.getNullType());
+			}
+			else {
+				codec.setMillis(statement, index, value.getMillis());
+			}
+		}
+	}
+	
+	private static final class InstantMillis extends Column {
+		private final InstantCodec codec;
+		private final long[] millis;
+		
+		InstantMillis(int index, InstantCodec codec, long[] millis) {
+			super(index);
+			this.codec = codec;
+			this.millis = millis;
+		}
+		
+		void bind(PreparedStatement statement, int row) throws SQLException {
+			codec.setMillis(statement, index, millis[row]);
+		}
+	}
+	
+	private static final class YearMonthDays extends Column {
+		private final YearMonthDayCodec codec;
+		private final YearMonthDay[] values;
+		
+		YearMonthDays(int index, YearMonthDayCodec codec, YearMonthDay[] values) {
+			super(index);
+			this.codec = codec;
+			this.values = values;
+		}
+		
+		void bind(PreparedStatement statement, int row) throws SQLException {
+			YearMonthDay value = values[row];
+			if (value == null) {
+				statement.setNull(index, codec.getNullType());
+			}
+			else {
+				codec.set(statement, index, value);
+			}
+		}
+	}
+	
+	private static final class PackedYearMonthDays extends Column {
+		private final YearMonthDayCodec codec;
+		private final int[] yearMonthDays;
+		
+		PackedYearMonthDays(int index, YearMonthDayCodec codec, int[] yearMonthDays) {
+			super(index);
+			this.codec = codec;
+			this.yearMonthDays = yearMonthDays;
+		}
+		
+		void bind(PreparedStatement statement, int row) throws SQLException {
+			codec.setPacked(statement, index, yearMonthDays[row]);
+		}
+	}
+	
+	private static final class Durations extends Column {
+		private final int nullType;
+		private final Duration[] values;
+		
+		Durations(int index, int nullType, Duration[] values) {
+			super(index);
+			this.nullType = nullType;
+			this.values = values;
+		}
+		
+		void bind(PreparedStatement statement, int row) throws SQLException {
+			Duration value = values[row];
+			if (value == null) {
+				statement.setNull(index, nullType);
+			}
+			else {
+				statement.setLong(index, value.getMillis());
+			}
+		}
+	}
+	
+	private static final class Longs extends Column {
+		private final long[] values;
+		
+		Longs(int index, long[] values) {
+			super(index);
+			this.values = values;
+		}
+		
+		void bind(PreparedStatement statement, int row) throws SQLException {
+			statement.setLong(index, values[row]);
+		}
+	}
+}
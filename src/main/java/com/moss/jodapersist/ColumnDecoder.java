@@ -0,0 +1,274 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * <p>
+ * 	Reads whole columns of a ResultSet into primitive arrays, decoding each value the
+ * 	way the corresponding user type's nullSafeGet would but without building the Joda
+ * 	objects: epoch millis for instants and durations, packed yyyymmdd for dates and the
+ * 	millisecond of day for times of day.  Null values read as 0 and are flagged
+ * 	separately.
+ * </p>
+ * <pre>
+ * ColumnDecoder decoder = new ColumnDecoder();
+ * ColumnDecoder.Longs created = decoder.instants("created", instantType);
+ * ColumnDecoder.Ints posted = decoder.yearMonthDays("posted", yearMonthDayType);
+ * decoder.drain(resultSet);
+ * long[] millis = created.toArray();
+ * </pre>
+ * <p>
+ * 	Not thread-safe; use one per query.
+ * </p>
+ */
+public class ColumnDecoder {
+	private final List<Column> columns = new ArrayList<Column>();
+	
+	public Longs instants(String column, InstantUserType type) {
+		final InstantCodec codec = type.getCodec();
+		Longs longs = new Longs(column) {
+			long read(ResultSet resultSet, int index) throws SQLException {
+				return codec.getMillis(resultSet, index);
+			}
+		};
+		columns.add(longs);
+		return longs;
+	}
+	
+	public Ints yearMonthDays(String column, YearMonthDayUserType type) {
+		final YearMonthDayCodec codec = type.getCodec();
+		Ints ints = new Ints(column) {
+			int read(ResultSet resultSet, int index) throws SQLException {
+				return codec.getPacked(resultSet, index);
+			}
+		};
+		columns.add(ints);
+		return ints;
+	}
+	
+	public Ints timesOfDay(String column, TimeOfDayUserType type) {
+		final TimeOfDayCodec codec = type.getCodec();
+		Ints ints = new Ints(column) {
+			int read(ResultSet resultSet, int index) throws SQLException {
+				return codec.getMillisOfDay(resultSet, index);
+			}
+		};
+		columns.add(ints);
+		return ints;
+	}
+	
+	public Longs durations(String column, DurationUserType type) {
+		final DurationType durationType = type.getType();
+		Longs longs = new Longs(column) {
+			long read(ResultSet resultSet, int index) throws SQLException {
+				return durationType.getMillis(resultSet, index);
+			}
+		};
+		columns.add(longs);
+		return longs;
+	}
+	
+	/**
+	 * Reads every remaining row of the ResultSet, appending to each column.
+	 * 
+	 * @return the number of rows read
+	 */
+	public int drain(ResultSet resultSet) throws SQLException {
+		return drain(resultSet, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Reads up to maxRows more rows of the ResultSet, appending to each column.  Together
+	 * with {@link #clear()} this lets a large result be processed in chunks of fixed size:
+	 * <pre>
+	 * while (decoder.drain(resultSet, 10000) &gt; 0) {
+	 * 	...
+	 * 	decoder.clear();
+	 * }
+	 * </pre>
+	 * 
+	 * @return the number of rows read, 0 once the ResultSet is exhausted
+	 */
+	public int drain(ResultSet resultSet, int maxRows) throws SQLException {
+		Column[] columns = this.columns.toArray(new Column[this.columns.size()]);
+		int[] indexes = new int[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			indexes[i] = resultSet.findColumn(columns[i].name);
+		}
+		
+		int rows = 0;
+		while (rows < maxRows && resultSet.next()) {
+			for (int i = 0; i < columns.length; i++) {
+				columns[i].append(resultSet, indexes[i]);
+			}
+			rows++;
+		}
+		return rows;
+	}
+	
+	/**
+	 * Empties every column, keeping the arrays already allocated.
+	 */
+	public void clear() {
+		for (int i = 0; i < columns.size(); i++) {
+			Column column = columns.get(i);
+			column.size = 0;
+			column.nulls.clear();
+		}
+	}
+	
+	static abstract class Column {
+		final String name;
+		int size;
+		final BitSet nulls = new BitSet();
+		
+		Column(String name) {
+			this.name = name;
+		}
+		
+		abstract void append(ResultSet resultSet, int index) throws SQLException;
+		
+		final void flagNull(ResultSet resultSet) throws SQLException {
+			if (resultSet.wasNull()) {
+				nulls.set(size);
+			}
+		}
+		
+		/**
+		 * @return the number of values read so far
+		 */
+		public final int size() {
+			return size;
+		}
+		
+		public final boolean isNull(int row) {
+			checkRow(row);
+			return nulls.get(row);
+		}
+		
+		public final boolean hasNulls() {
+			return !nulls.isEmpty();
+		}
+		
+		final void checkRow(int row) {
+			if (row < 0 || row >= size) {
+				throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+			}
+		}
+		
+		static int grow(int capacity) {
+			return Math.max(16, capacity + (capacity >> 1));
+		}
+	}
+	
+	public static abstract class Longs extends Column {
+		private long[] values = new long[0];
+		
+		Longs(String name) {
+			super(name);
+		}
+		
+		abstract long read(ResultSet resultSet, int index) throws SQLException;
+		
+		final void append(ResultSet resultSet, int index) throws SQLException {
+			long value = read(resultSet, index);
+			flagNull(resultSet);
+			if (size == values.length) {
+				long[] grown = new long[grow(size)];
+				System.arraycopy(values, 0, grown, 0, size);
+				values = grown;
+			}
+			values[size++] = value;
+		}
+		
+		/**
+		 * @return the value of the row, 0 if it was null
+		 */
+		public long get(int row) {
+			checkRow(row);
+			return values[row];
+		}
+		
+		public long[] toArray() {
+			long[] copy = new long[size];
+			System.arraycopy(values, 0, copy, 0, size);
+			return copy;
+		}
+	}
+	
+	public static abstract class Ints extends Column {
+		private int[] values = new int[0];
+		
+		Ints(String name) {
+			super(name);
+		}
+		
+		abstract int read(ResultSet resultSet, int index) throws SQLException;
+		
+		final void append(ResultSet resultSet, int index) throws SQLException {
+			int value = read(resultSet, index);
+			flagNull(resultSet);
+			if (size == values.length) {
+				int[] grown = new int[grow(size)];
+				System.arraycopy(values, 0, grown, 0, size);
+				values = grown;
+			}
+			values[size++] = value;
+		}
+		
+		/**
+		 * @return the value of the row, 0 if it was null
+		 */
+		public int get(int row) {
+			checkRow(row);
+			return values[row];
+		}
+		
+		public int[] toArray() {
+			int[] copy = new int[size];
+			System.arraycopy(values, 0, copy, 0, size);
+			return copy;
+		}
+	}
+}
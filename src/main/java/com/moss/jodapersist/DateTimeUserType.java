@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.hibernate.Hibernate;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.type.Type;
+import org.hibernate.usertype.CompositeUserType;
+import org.joda.time.DateTime;
+import org.joda.time.chrono.ISOChronology;
+
+/**
+ * Persists a org.joda.time.DateTime as two columns: its epoch millis as a BIGINT and its
+ * zone as a SMALLINT code from {@link ZoneDictionary}.  Map it with the millis column
+ * first:
+ * <pre>
+ * 	&lt;property name="created" type="com.moss.jodapersist.DateTimeUserType"&gt;
+ * 		&lt;column name="created_millis"/&gt;
+ * 		&lt;column name="created_zone"/&gt;
+ * 	&lt;/property&gt;
+ * </pre>
+ * Queries can refer to the columns as the "millis" and "zone" properties.  Values are 
+ * read back in the ISO chronology; only the zone of any other chronology is kept.  
+ * Writing a zone without a code (a fixed offset that isn't a whole number of minutes) 
+ * fails.
+ */
+public class DateTimeUserType implements CompositeUserType {
+	
+	public static final String CLASS_NAME = "com.moss.jodapersist.DateTimeUserType";
+	
+	private static final String[] PROPERTY_NAMES = { "millis", "zone" };
+	
+	private static final Type[] PROPERTY_TYPES = { Hibernate.LONG, Hibernate.SHORT };
+	
+	public String[] getPropertyNames() {
+		return PROPERTY_NAMES;
+	}
+	
+	public Type[] getPropertyTypes() {
+		return PROPERTY_TYPES;
+	}
+	
+	public Object getPropertyValue(Object component, int property) throws HibernateException {
+		DateTime dateTime = (DateTime)component;
+		if (property == 0) {
+			return new Long(dateTime.getMillis());
+		}
+		return new Short(ZoneDictionary.codeOf(dateTime.getZone()));
+	}
+	
+	public void setPropertyValue(Object component, int property, Object value) throws HibernateException {
+		throw new UnsupportedOperationException(DateTime.class.getName() + " is immutable");
+	}
+	
+	public Class returnedClass() {
+		return DateTime.class;
+	}
+	
+	public boolean equals(Object x, Object y) throws HibernateException {
+		if (x == y) return true;
+		if (x == null || y == null) return false;
+		
+		DateTime a = (DateTime)x, b = (DateTime)y;
+		return a.getMillis() == b.getMillis() && a.getChronology().equals(b.getChronology());
+	}
+	
+	public int hashCode(Object x) throws HibernateException {
+		long millis = ((DateTime)x).getMillis();
+		return (int)(millis ^ (millis >>> 32));
+	}
+	
+	/**
+	 * A null zone column reads as UTC.
+	 */
+	public Object nullSafeGet(ResultSet resultSet, String[] names, SessionImplementor session, Object owner) throws HibernateException, SQLException {
+		long millis = resultSet.getLong(names[0]);
+		if (resultSet.wasNull()) {
+			return null;
+		}
+		short code = resultSet.getShort(names[1]);
+		if (resultSet.wasNull()) {
+			return new DateTime(millis, ISOChronology.getInstanceUTC());
+		}
+		return new DateTime(millis, ZoneDictionary.chronology(code));
+	}
+	
+	public void nullSafeSet(PreparedStatement statement, Object value, int index, SessionImplementor session) throws HibernateException, SQLException {
+		if (value == null) {
+			statement.setNull(index, Types.BIGINT);
+			statement.setNull(index + 1, Types.SMALLINT);
+		}
+		else {
+			DateTime dateTime = (DateTime)value;
+			statement.setLong(index, dateTime.getMillis());
+			statement.setShort(index + 1, ZoneDictionary.codeOf(dateTime.getZone()));
+		}
+	}
+	
+	public Object deepCopy(Object value) throws HibernateException {
+		return value;
+	}
+	
+	public boolean isMutable() {
+		return false;
+	}
+	
+	/**
+	 * @return the millis and zone code as a long[2], for the second-level cache
+	 */
+	public Serializable disassemble(Object value, SessionImplementor session) throws HibernateException {
+		if (value == null) {
+			return null;
+		}
+		DateTime dateTime = (DateTime)value;
+		return new long[] { dateTime.getMillis(), ZoneDictionary.codeOf(dateTime.getZone()) };
+	}
+	
+	public Object assemble(Serializable cached, SessionImplementor session, Object owner) throws HibernateException {
+		if (cached == null) {
+			return null;
+		}
+		long[] values = (long[])cached;
+		return new DateTime(values[0], ZoneDictionary.chronology((int)values[1]));
+	}
+	
+	public Object replace(Object original, Object target, SessionImplementor session, Object owner) throws HibernateException {
+		return original;
+	}
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Properties;
+
+import org.hibernate.EntityMode;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.type.ImmutableType;
+import org.hibernate.usertype.ParameterizedType;
+import org.joda.time.Duration;
+
+import com.moss.hibernate.util.ColumnIndexes;
+
+/**
+ * A Hibernate type for org.joda.time.Duration, usable directly as a mapping's type so the
+ * property skips the CustomType wrapper {@link DurationUserType} needs.  The column holds
+ * the length in milliseconds, as a NUMERIC or, with a "sqltype" mapping parameter of 
+ * bigint, a BIGINT.
+ */
+public class DurationType extends ImmutableType implements ParameterizedType {
+	
+	public static final String 
+		DB_FORMAT_NUMERIC = "numeric",
+		DB_FORMAT_BIGINT = "bigint";
+	
+	private int sqlType;
+	
+	/**
+	 * Set on the shared {@link JodaTypes} constants, which mustn't be reconfigured
+	 */
+	private boolean frozen;
+	
+	public DurationType() {
+		this(Types.NUMERIC);
+	}
+	
+	DurationType(int sqlType) {
+		this.sqlType = sqlType;
+	}
+	
+	public Object get(ResultSet resultSet, String name) throws HibernateException, SQLException {
+		return get(resultSet, ColumnIndexes.indexOf(resultSet, name));
+	}
+	
+	Duration get(ResultSet resultSet, int column) throws SQLException {
+		long millis = getMillis(resultSet, column);
+		if (resultSet.wasNull()) return null;
+		else return new Duration(millis);
+	}
+	
+	/**
+	 * @return the length in milliseconds, or 0 if it is null (check wasNull())
+	 */
+	long getMillis(ResultSet resultSet, int column) throws SQLException {
+		return resultSet.getLong(column);
+	}
+	
+	public void set(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException {
+		statement.setLong(index, ((Duration)value).getMillis());
+	}
+	
+	public boolean isEqual(Object x, Object y) {
+		if (x == y) return true;
+		if (x == null || y == null) return false;
+		return ((Duration)x).getMillis() == ((Duration)y).getMillis();
+	}
+	
+	public int getHashCode(Object x, EntityMode entityMode) {
+		long millis = ((Duration)x).getMillis();
+		return (int)(millis ^ (millis >>> 32));
+	}
+	
+	/**
+	 * @return the millis as a Long
+	 */
+	public Serializable disassemble(Object value, SessionImplementor session, Object owner) throws HibernateException {
+		return value == null ? null : new Long(((Duration)value).getMillis());
+	}
+	
+	/**
+	 * Also takes the Duration itself, which is what entries cached before the millis were
+	 * hold.
+	 */
+	public Object assemble(Serializable cached, SessionImplementor session, Object owner) throws HibernateException {
+		if (cached == null || cached instanceof Duration) {
+			return cached;
+		}
+		return new Duration(((Long)cached).longValue());
+	}
+	
+	public int sqlType() {
+		return sqlType;
+	}
+	
+	public String toString(Object value) throws HibernateException {
+		return value.toString();
+	}
+	
+	public Object fromStringValue(String xml) throws HibernateException {
+		return new Duration(xml);
+	}
+	
+	public Class getReturnedClass() {
+		return Duration.class;
+	}
+	
+	public String getName() {
+		return "duration";
+	}
+	
+	/**
+	 * Makes setParameterValues throw, for the shared {@link JodaTypes} constants
+	 */
+	DurationType freeze() {
+		frozen = true;
+		return this;
+	}
+	
+	public void setParameterValues(Properties p) {
+		if (frozen) {
+			throw new UnsupportedOperationException("The shared " + getName() + " types in JodaTypes can't be reconfigured");
+		}
+		if (p != null) {
+			String sqltype = p.getProperty("sqltype", DB_FORMAT_NUMERIC);
+			if (DB_FORMAT_NUMERIC.equals(sqltype)) {
+				sqlType = Types.NUMERIC;
+			}
+			else if (DB_FORMAT_BIGINT.equals(sqltype)) {
+				sqlType = Types.BIGINT;
+			}
+			else throw new HibernateException("Unsupported sqltype for " + Duration.class.getName() + ": " + sqltype);
+		}
+	}
+}
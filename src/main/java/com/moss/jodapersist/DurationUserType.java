@@ -37,6 +37,7 @@
  */
 package com.moss.jodapersist;
 
+import java.io.Serializable;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -45,20 +46,52 @@ import java.sql.Types;
 import org.hibernate.HibernateException;
 import org.joda.time.Duration;
 
-import com.moss.hibernate.util.QuickImmutableUserType;
+import com.moss.hibernate.util.IndexedImmutableUserType;
 
-public class DurationUserType extends QuickImmutableUserType {
+/**
+ * Reads and writes through a {@link DurationType}, which can also be mapped directly.
+ */
+public class DurationUserType extends IndexedImmutableUserType {
 	public static final String CLASS_NAME = "com.moss.jodapersist.DurationUserType";
+	
+	private final DurationType type;
+	
 	public DurationUserType() {
-		super(Duration.class, Types.NUMERIC);
+		this(Types.NUMERIC);
+	}
+	
+	/**
+	 * For subclasses which are specific to a particular sql type
+	 */
+	DurationUserType(int sqlType) {
+		super(Duration.class, sqlType);
+		type = new DurationType(sqlType);
+	}
+	
+	DurationType getType() {
+		return type;
+	}
+	
+	public Object assemble(Serializable arg0, Object arg1) throws HibernateException {
+		return type.assemble(arg0, null, arg1);
+	}
+	
+	public Serializable disassemble(Object arg0) throws HibernateException {
+		return type.disassemble(arg0, null, null);
+	}
+	
+	public boolean equals(Object arg0, Object arg1) throws HibernateException {
+		return type.isEqual(arg0, arg1);
+	}
+	
+	public int hashCode(Object arg0) throws HibernateException {
+		return type.getHashCode(arg0, null);
 	}
 	
-	public Object getFromResultSet(ResultSet results, String columnName) throws HibernateException, SQLException {
-		Object value = results.getObject(columnName);
-		if(value==null) return null;
-		else return new Duration(((Number)value).longValue());
+	public Object getFromResultSet(ResultSet results, int columnIndex) throws HibernateException, SQLException {
+		return type.get(results, columnIndex);
 	}
 	public void setValueInStatement(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException {
-		statement.setLong(index, ((Duration)value).getMillis());
+		type.set(statement, value, index);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.hibernate.HibernateException;
+import org.joda.time.Instant;
+
+import com.moss.hibernate.util.ColumnIndexes;
+
+/**
+ * Reads and writes a org.joda.time.Instant in one of the sqltypes supported by
+ * {@link InstantUserType}.
+ */
+abstract class InstantCodec extends SqlCodec {
+	
+	static final InstantCodec 
+		NUMERIC = new Numeric(InstantUserType.DB_FORMAT_NUMERIC, Types.NUMERIC),
+		BIGINT = new Numeric(InstantUserType.DB_FORMAT_BIGINT, Types.BIGINT);
+	
+	InstantCodec(String sqltype, int sqlType) {
+		super(sqltype, sqlType);
+	}
+	
+	/**
+	 * Reads the column exactly once.
+	 * 
+	 * @return the Instant stored in the column, or null
+	 */
+	final Instant get(ResultSet resultSet, String column) throws SQLException {
+		long millis = getMillis(resultSet, ColumnIndexes.indexOf(resultSet, column));
+		if (resultSet.wasNull()) {
+			return null;
+		}
+		return new Instant(millis);
+	}
+	
+	final void set(PreparedStatement statement, int index, Instant instant) throws SQLException {
+		setMillis(statement, index, instant.getMillis());
+	}
+	
+	/**
+	 * @return the stored millis, or 0 if the column is null (check wasNull())
+	 */
+	abstract long getMillis(ResultSet resultSet, int column) throws SQLException;
+	
+	abstract void setMillis(PreparedStatement statement, int index, long millis) throws SQLException;
+	
+	/**
+	 * @param zone the zone whose wall-clock time datetime columns hold
+	 */
+	static InstantCodec forSqltype(String sqltype, StorageZone zone) throws HibernateException {
+		if (InstantUserType.DB_FORMAT_NUMERIC.equals(sqltype)) {
+			return NUMERIC;
+		}
+		else if (InstantUserType.DB_FORMAT_BIGINT.equals(sqltype)) {
+			return BIGINT;
+		}
+		else if (InstantUserType.DB_FORMAT_DATETIME.equals(sqltype)) {
+			return new Datetime(zone);
+		}
+		else throw new HibernateException("Unsupported sqltype for " + Instant.class.getName() + ": " + sqltype);
+	}
+	
+	/**
+	 * Epoch millis in an integral column.
+	 */
+	private static final class Numeric extends InstantCodec {
+		Numeric(String sqltype, int sqlType) {
+			super(sqltype, sqlType);
+		}
+		
+		long getMillis(ResultSet resultSet, int column) throws SQLException {
+			return resultSet.getLong(column);
+		}
+		
+		void setMillis(PreparedStatement statement, int index, long millis) throws SQLException {
+			statement.setLong(index, millis);
+		}
+	}
+	
+	private static final class Datetime extends InstantCodec {
+		private final StorageZone zone;
+		
+		Datetime(StorageZone zone) {
+			super(InstantUserType.DB_FORMAT_DATETIME, Types.TIMESTAMP);
+			this.zone = zone;
+		}
+		
+		long getMillis(ResultSet resultSet, int column) throws SQLException {
+			return zone.getTimestamp(resultSet, column);
+		}
+		
+		void setMillis(PreparedStatement statement, int index, long millis) throws SQLException {
+			zone.setTimestamp(statement, index, millis);
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.hibernate.EntityMode;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.type.ImmutableType;
+import org.hibernate.usertype.ParameterizedType;
+import org.joda.time.Instant;
+
+/**
+ * A Hibernate type for org.joda.time.Instant, usable directly as a mapping's type so the
+ * property skips the CustomType wrapper {@link InstantUserType} needs.  Takes the same
+ * "sqltype", "timezone" and "zoneConversion" mapping parameters.
+ */
+public class InstantType extends ImmutableType implements ParameterizedType {
+	
+	private String sqltype;
+	
+	private String timezone;
+	
+	private String zoneConversion = StorageZone.CONVERSION_CALENDAR;
+	
+	/**
+	 * Set on the shared {@link JodaTypes} constants, which mustn't be reconfigured
+	 */
+	private boolean frozen;
+	
+	private transient InstantCodec codec;
+	
+	public InstantType() {
+		this(InstantUserType.DB_FORMAT_NUMERIC, StorageZone.DEFAULT_ID);
+	}
+	
+	InstantType(String sqltype, String timezone) {
+		this.sqltype = sqltype;
+		this.timezone = timezone;
+		resolveCodec();
+	}
+	
+	private void resolveCodec() {
+		codec = InstantCodec.forSqltype(sqltype, StorageZone.forID(timezone, zoneConversion));
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		resolveCodec();
+	}
+	
+	InstantCodec getCodec() {
+		return codec;
+	}
+	
+	void setSqltype(String sqltype) {
+		this.sqltype = sqltype;
+		resolveCodec();
+	}
+	
+	public Object get(ResultSet resultSet, String name) throws HibernateException, SQLException {
+		return codec.get(resultSet, name);
+	}
+	
+	public void set(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException {
+		codec.set(statement, index, (Instant)value);
+	}
+	
+	/**
+	 * Instants are always in ISO UTC, so equal millis make equal values.
+	 */
+	public boolean isEqual(Object x, Object y) {
+		if (x == y) return true;
+		if (x == null || y == null) return false;
+		return ((Instant)x).getMillis() == ((Instant)y).getMillis();
+	}
+	
+	public int getHashCode(Object x, EntityMode entityMode) {
+		long millis = ((Instant)x).getMillis();
+		return (int)(millis ^ (millis >>> 32));
+	}
+	
+	/**
+	 * @return the millis as a Long, which the second-level cache holds more compactly
+	 * 	than the Instant and its Chronology
+	 */
+	public Serializable disassemble(Object value, SessionImplementor session, Object owner) throws HibernateException {
+		return value == null ? null : new Long(((Instant)value).getMillis());
+	}
+	
+	/**
+	 * Also takes the Instant itself, which is what entries cached before the millis were
+	 * hold.
+	 */
+	public Object assemble(Serializable cached, SessionImplementor session, Object owner) throws HibernateException {
+		if (cached == null || cached instanceof Instant) {
+			return cached;
+		}
+		return new Instant(((Long)cached).longValue());
+	}
+	
+	public int sqlType() {
+		return codec.getNullType();
+	}
+	
+	public String toString(Object value) throws HibernateException {
+		return value.toString();
+	}
+	
+	public Object fromStringValue(String xml) throws HibernateException {
+		return new Instant(xml);
+	}
+	
+	public Class getReturnedClass() {
+		return Instant.class;
+	}
+	
+	public String getName() {
+		return "instant";
+	}
+	
+	/**
+	 * Makes setParameterValues throw, for the shared {@link JodaTypes} constants
+	 */
+	InstantType freeze() {
+		frozen = true;
+		return this;
+	}
+	
+	public void setParameterValues(Properties p) {
+		if (frozen) {
+			throw new UnsupportedOperationException("The shared " + getName() + " types in JodaTypes can't be reconfigured");
+		}
+		if (p != null) {
+			timezone = p.getProperty("timezone", StorageZone.DEFAULT_ID);
+			zoneConversion = p.getProperty("zoneConversion", StorageZone.CONVERSION_CALENDAR);
+			setSqltype(p.getProperty("sqltype", sqltype));
+		}
+	}
+}
@@ -41,12 +41,7 @@ import java.io.Serializable;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Timestamp;
-import java.sql.Types;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.Properties;
-import java.util.TimeZone;
 
 import org.hibernate.HibernateException;
 import org.hibernate.usertype.ParameterizedType;
@@ -55,35 +50,45 @@ import org.joda.time.Instant;
 
 /**
  * Persists a org.joda.time.Instant as a long in the database.
+ * <p>
+ * 	The numeric sqltype declares a NUMERIC column, which some drivers hydrate through
+ * 	BigDecimal; the bigint sqltype declares a BIGINT instead.
+ * </p>
+ * <p>
+ * 	With the datetime sqltype, the column holds the wall-clock time in the zone named by
+ * 	the "timezone" mapping parameter (America/New_York by default).  By default the
+ * 	driver is handed a Calendar in that zone to convert with.  Setting the 
+ * 	"zoneConversion" mapping parameter to offsets converts with precomputed offset
+ * 	tables instead, which is cheaper, but stores different values on drivers which
+ * 	ignore the Calendar (HSQLDB among them): such columns hold the JVM zone's wall-clock
+ * 	time under the default and the storage zone's with offsets, so existing rows have to
+ * 	be shifted by the difference when switching.
+ * </p>
+ * <p>
+ * 	Reads and writes through an {@link InstantType}, which can also be mapped directly.
+ * </p>
  */
 public class InstantUserType implements UserType, ParameterizedType {
 	
 	public static final String CLASS_NAME = "com.moss.jodapersist.InstantUserType";
 	
-	private Calendar storageCalendar = new GregorianCalendar(TimeZone.getTimeZone("America/New_York"));
-	
 	public static final String 
 		DB_FORMAT_DATETIME = "datetime", 
-		DB_FORMAT_NUMERIC = "numeric";
+		DB_FORMAT_NUMERIC = "numeric",
+		DB_FORMAT_BIGINT = "bigint";
 
-	private static final int[] 
-        DB_FORMAT_NUMERIC_TYPES = new int[] { Types.NUMERIC },
-		DB_FORMAT_DATETIME_TYPES = new int[] { Types.TIMESTAMP };
-	
-	private String sqltype = DB_FORMAT_NUMERIC; 
+	private final InstantType type = new InstantType();
 	
 	void setSqltype(String sqltype) {
-		this.sqltype = sqltype;
+		type.setSqltype(sqltype);
+	}
+	
+	InstantCodec getCodec() {
+		return type.getCodec();
 	}
 	
 	public int[] sqlTypes() { 
-		if (sqltype.equals(DB_FORMAT_NUMERIC)) {
-			return DB_FORMAT_NUMERIC_TYPES;
-		}
-		else if (sqltype.equals(DB_FORMAT_DATETIME)) { 
-			return DB_FORMAT_DATETIME_TYPES;
-		}
-		else return null;
+		return type.getCodec().sqlTypes();
 	}
 	
 	public boolean isMutable() {
@@ -91,7 +96,7 @@ public class InstantUserType implements UserType, ParameterizedType {
 	}
 
 	public Object assemble(Serializable arg0, Object arg1) throws HibernateException {
-		return arg0;
+		return type.assemble(arg0, null, arg1);
 	}
 
 	public Object deepCopy(Object arg0) throws HibernateException {
@@ -100,7 +105,7 @@ public class InstantUserType implements UserType, ParameterizedType {
 	}
 
 	public Serializable disassemble(Object arg0) throws HibernateException {
-		return (Serializable)arg0;
+		return type.disassemble(arg0, null, null);
 	}
 
 	public boolean equals(Object arg0, Object arg1) throws HibernateException {
@@ -113,54 +118,19 @@ public class InstantUserType implements UserType, ParameterizedType {
 			return false;
 		}
 		
-		if (arg0 != null && arg1 != null) {
-			return arg0.equals(arg1);
-		}
-		
-		return false;
+		return type.isEqual(arg0, arg1);
 	}
 
 	public int hashCode(Object arg0) throws HibernateException {
-		return arg0.hashCode();
+		return type.getHashCode(arg0, null);
 	}
 
 	public Object nullSafeGet(ResultSet resultSet, String[] names, Object arg2) throws HibernateException, SQLException {
-		Object o = resultSet.getObject(names[0]);
-		
-		if (o == null) {
-			return null;
-		}
-		else if (sqltype.equals(DB_FORMAT_NUMERIC)) {
-				long instant = resultSet.getLong(names[0]);
-				return new Instant(instant);
-		}	
-		else if (sqltype.equals(DB_FORMAT_DATETIME)) {
-				Timestamp timestamp = resultSet.getTimestamp(names[0], storageCalendar);
-				Instant instant = new Instant(timestamp.getTime());
-				return instant;
-		}
-		else return null;
+		return type.get(resultSet, names[0]);
 	}
 
 	public void nullSafeSet(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException {
-		Instant instant = (Instant)value;
-		if (instant != null) {
-			if (sqltype.equals(DB_FORMAT_NUMERIC)) {
-				statement.setLong(index, instant.getMillis());
-			}	
-			else if (sqltype.equals(DB_FORMAT_DATETIME)) {
-				statement.setTimestamp(index, new Timestamp(instant.getMillis()), storageCalendar);
-			}
-		}
-		else {
-			statement.setNull(index,getJdbcTypeFromName(sqltype));
-		}
-	}
-	
-	private int getJdbcTypeFromName(String name){
-		if(sqltype.equals(DB_FORMAT_NUMERIC)) return Types.NUMERIC;
-		if(sqltype.equals(DB_FORMAT_DATETIME)) return Types.TIMESTAMP;
-		return -10000;
+		type.nullSafeSet(statement, value, index);
 	}
 	
 	public Object replace(Object original, Object target, Object owner) throws HibernateException {
@@ -172,8 +142,6 @@ public class InstantUserType implements UserType, ParameterizedType {
 	}
 	
 	public void setParameterValues(Properties p) {
-		if (p != null) {
-			sqltype = p.getProperty("sqltype", DB_FORMAT_NUMERIC);
-		}
+		type.setParameterValues(p);
 	}
 }
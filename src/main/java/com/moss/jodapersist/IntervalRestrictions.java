@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Restrictions;
+import org.joda.time.ReadableDuration;
+import org.joda.time.ReadableInstant;
+import org.joda.time.ReadableInterval;
+
+/**
+ * Criteria on properties mapped with {@link IntervalUserType}, matching the 
+ * ReadableInterval method of the same name.  Each is a conjunction of range or equality 
+ * tests on the start and end columns, with no OR over ranges, so an index on them can 
+ * be used.
+ */
+public final class IntervalRestrictions {
+	
+	private IntervalRestrictions() {}
+	
+	/**
+	 * Rows whose interval shares some instant with the given one: start &lt; other end 
+	 * and end &gt; other start.
+	 */
+	public static Criterion overlaps(String property, ReadableInterval interval) {
+		return Restrictions.and(
+			Restrictions.lt(start(property), new Long(interval.getEndMillis())),
+			Restrictions.gt(end(property), new Long(interval.getStartMillis())));
+	}
+	
+	/**
+	 * As {@link #overlaps(String, ReadableInterval)}, for a property whose intervals 
+	 * are never longer than maxLength.  The extra lower bound on the start column turns an
+	 * index scan on it from everything before the other end into a range no wider than 
+	 * maxLength plus the other interval.
+	 */
+	public static Criterion overlaps(String property, ReadableInterval interval, ReadableDuration maxLength) {
+		return Restrictions.and(
+			Restrictions.between(start(property), 
+				new Long(interval.getStartMillis() - maxLength.getMillis()), 
+				new Long(interval.getEndMillis() - 1)),
+			Restrictions.gt(end(property), new Long(interval.getStartMillis())));
+	}
+	
+	/**
+	 * Rows whose interval contains the instant: start &lt;= instant &lt; end.
+	 */
+	public static Criterion contains(String property, ReadableInstant instant) {
+		return Restrictions.and(
+			Restrictions.le(start(property), new Long(instant.getMillis())),
+			Restrictions.gt(end(property), new Long(instant.getMillis())));
+	}
+	
+	/**
+	 * Rows whose interval contains the whole of the given one: start &lt;= other start
+	 * &lt; end and other end &lt;= end.
+	 */
+	public static Criterion contains(String property, ReadableInterval interval) {
+		return Restrictions.and(
+			Restrictions.le(start(property), new Long(interval.getStartMillis())),
+			Restrictions.and(
+				Restrictions.gt(end(property), new Long(interval.getStartMillis())),
+				Restrictions.ge(end(property), new Long(interval.getEndMillis()))));
+	}
+	
+	/**
+	 * Rows whose interval ends where the given one starts or starts where it ends.
+	 */
+	public static Criterion abuts(String property, ReadableInterval interval) {
+		return Restrictions.or(
+			Restrictions.eq(end(property), new Long(interval.getStartMillis())),
+			Restrictions.eq(start(property), new Long(interval.getEndMillis())));
+	}
+	
+	private static String start(String property) {
+		return property + "." + IntervalUserType.START;
+	}
+	
+	private static String end(String property) {
+		return property + "." + IntervalUserType.END;
+	}
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.hibernate.Hibernate;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.type.Type;
+import org.hibernate.usertype.CompositeUserType;
+import org.joda.time.Interval;
+
+/**
+ * Persists a org.joda.time.Interval as two BIGINT columns holding its start and end in
+ * epoch millis.  Map it with the start column first:
+ * <pre>
+ * 	&lt;property name="booked" type="com.moss.jodapersist.IntervalUserType"&gt;
+ * 		&lt;column name="booked_start" index="booked_idx"/&gt;
+ * 		&lt;column name="booked_end" index="booked_idx"/&gt;
+ * 	&lt;/property&gt;
+ * </pre>
+ * Queries can refer to the columns as the "start" and "end" properties, and 
+ * {@link IntervalRestrictions} builds Criteria on them.  Values are read back in the
+ * ISO chronology in the default zone, as new Interval(start, end) would make them, and
+ * compare equal whenever their start and end do.
+ */
+public class IntervalUserType implements CompositeUserType {
+	
+	public static final String CLASS_NAME = "com.moss.jodapersist.IntervalUserType";
+	
+	public static final String 
+		START = "start",
+		END = "end";
+	
+	private static final String[] PROPERTY_NAMES = { START, END };
+	
+	private static final Type[] PROPERTY_TYPES = { Hibernate.LONG, Hibernate.LONG };
+	
+	public String[] getPropertyNames() {
+		return PROPERTY_NAMES;
+	}
+	
+	public Type[] getPropertyTypes() {
+		return PROPERTY_TYPES;
+	}
+	
+	public Object getPropertyValue(Object component, int property) throws HibernateException {
+		Interval interval = (Interval)component;
+		return new Long(property == 0 ? interval.getStartMillis() : interval.getEndMillis());
+	}
+	
+	public void setPropertyValue(Object component, int property, Object value) throws HibernateException {
+		throw new UnsupportedOperationException(Interval.class.getName() + " is immutable");
+	}
+	
+	public Class returnedClass() {
+		return Interval.class;
+	}
+	
+	public boolean equals(Object x, Object y) throws HibernateException {
+		if (x == y) return true;
+		if (x == null || y == null) return false;
+		
+		Interval a = (Interval)x, b = (Interval)y;
+		return a.getStartMillis() == b.getStartMillis() && a.getEndMillis() == b.getEndMillis();
+	}
+	
+	public int hashCode(Object x) throws HibernateException {
+		Interval interval = (Interval)x;
+		long hash = interval.getStartMillis() * 31 + interval.getEndMillis();
+		return (int)(hash ^ (hash >>> 32));
+	}
+	
+	public Object nullSafeGet(ResultSet resultSet, String[] names, SessionImplementor session, Object owner) throws HibernateException, SQLException {
+		long start = resultSet.getLong(names[0]);
+		if (resultSet.wasNull()) {
+			return null;
+		}
+		long end = resultSet.getLong(names[1]);
+		if (resultSet.wasNull()) {
+			return null;
+		}
+		return new Interval(start, end);
+	}
+	
+	public void nullSafeSet(PreparedStatement statement, Object value, int index, SessionImplementor session) throws HibernateException, SQLException {
+		if (value == null) {
+			statement.setNull(index, Types.BIGINT);
+			statement.setNull(index + 1, Types.BIGINT);
+		}
+		else {
+			Interval interval = (Interval)value;
+			statement.setLong(index, interval.getStartMillis());
+			statement.setLong(index + 1, interval.getEndMillis());
+		}
+	}
+	
+	public Object deepCopy(Object value) throws HibernateException {
+		return value;
+	}
+	
+	public boolean isMutable() {
+		return false;
+	}
+	
+	/**
+	 * @return the start and end millis as a long[2], for the second-level cache
+	 */
+	public Serializable disassemble(Object value, SessionImplementor session) throws HibernateException {
+		if (value == null) {
+			return null;
+		}
+		Interval interval = (Interval)value;
+		return new long[] { interval.getStartMillis(), interval.getEndMillis() };
+	}
+	
+	public Object assemble(Serializable cached, SessionImplementor session, Object owner) throws HibernateException {
+		if (cached == null) {
+			return null;
+		}
+		long[] values = (long[])cached;
+		return new Interval(values[0], values[1]);
+	}
+	
+	public Object replace(Object original, Object target, SessionImplementor session, Object owner) throws HibernateException {
+		return original;
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.sql.Types;
+import java.util.Properties;
+
+import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.Mappings;
+
+/**
+ * Ready-made types for binding Joda values as query parameters, in the manner of 
+ * org.hibernate.Hibernate's constants:
+ * <pre>
+ * 	query.setParameter("day", day, JodaTypes.YEAR_MONTH_DAY_INTEGER);
+ * </pre>
+ * Without a type Hibernate falls back to serializing the value, which never matches
+ * the column.  Pick the constant for the column's sqltype; datetime columns hold 
+ * wall-clock time in the default zone (America/New_York), so columns mapped with another
+ * "timezone" need a type configured to match, such as the property's own type from the
+ * ClassMetadata.
+ * <p>
+ * 	The constants are shared, so their setParameterValues throws an
+ * 	UnsupportedOperationException.
+ * </p>
+ */
+public final class JodaTypes {
+	
+	public static final InstantType
+		INSTANT_NUMERIC = new InstantType(InstantUserType.DB_FORMAT_NUMERIC, StorageZone.DEFAULT_ID).freeze(),
+		INSTANT_BIGINT = new InstantType(InstantUserType.DB_FORMAT_BIGINT, StorageZone.DEFAULT_ID).freeze(),
+		INSTANT_DATETIME = new InstantType(InstantUserType.DB_FORMAT_DATETIME, StorageZone.DEFAULT_ID).freeze();
+	
+	public static final YearMonthDayType
+		YEAR_MONTH_DAY_NUMERIC = new YearMonthDayType(YearMonthDayUserType.DB_FORMAT_NUMERIC).freeze(),
+		YEAR_MONTH_DAY_INTEGER = new YearMonthDayType(YearMonthDayUserType.DB_FORMAT_INTEGER).freeze(),
+		YEAR_MONTH_DAY_EPOCH_DAY = new YearMonthDayType(YearMonthDayUserType.DB_FORMAT_EPOCH_DAY).freeze(),
+		YEAR_MONTH_DAY_DATE = new YearMonthDayType(YearMonthDayUserType.DB_FORMAT_DATE).freeze(),
+		YEAR_MONTH_DAY_STRING = new YearMonthDayType(YearMonthDayUserType.DB_FORMAT_STRING).freeze(),
+		YEAR_MONTH_DAY_DATETIME = new YearMonthDayType(YearMonthDayUserType.DB_FORMAT_DATETIME).freeze();
+	
+	public static final TimeOfDayType
+		TIME_OF_DAY_TIME = new TimeOfDayType(TimeOfDayUserType.DB_FORMAT_TIME, null).freeze(),
+		TIME_OF_DAY_STRING = new TimeOfDayType(TimeOfDayUserType.DB_FORMAT_STRING, null).freeze(),
+		TIME_OF_DAY_DATETIME = new TimeOfDayType(TimeOfDayUserType.DB_FORMAT_DATETIME, null).freeze(),
+		TIME_OF_DAY_NUMERIC = new TimeOfDayType(TimeOfDayUserType.DB_FORMAT_NUMERIC, null).freeze();
+	
+	public static final DurationType
+		DURATION_NUMERIC = new DurationType(Types.NUMERIC).freeze(),
+		DURATION_BIGINT = new DurationType(Types.BIGINT).freeze();
+	
+	private JodaTypes() {}
+	
+	/**
+	 * Registers a TypeDef for each of the constants, named by type and sqltype in lower
+	 * case (instant_bigint, yearmonthday_epochday, timeofday_time, duration_numeric...), so
+	 * mappings can refer to them by name.  Parameters given in a mapping's type element 
+	 * still apply on top.
+	 * 
+	 * @return the configuration, for chaining
+	 */
+	public static Configuration registerTypeDefs(Configuration configuration) {
+		Mappings mappings = configuration.createMappings();
+		
+		String[] instants = { 
+			InstantUserType.DB_FORMAT_NUMERIC, 
+			InstantUserType.DB_FORMAT_BIGINT, 
+			InstantUserType.DB_FORMAT_DATETIME 
+		};
+		for (int i = 0; i < instants.length; i++) {
+			addTypeDef(mappings, "instant", InstantType.class, instants[i]);
+		}
+		
+		String[] yearMonthDays = {
+			YearMonthDayUserType.DB_FORMAT_NUMERIC,
+			YearMonthDayUserType.DB_FORMAT_INTEGER,
+			YearMonthDayUserType.DB_FORMAT_EPOCH_DAY,
+			YearMonthDayUserType.DB_FORMAT_DATE,
+			YearMonthDayUserType.DB_FORMAT_STRING,
+			YearMonthDayUserType.DB_FORMAT_DATETIME
+		};
+		for (int i = 0; i < yearMonthDays.length; i++) {
+			addTypeDef(mappings, "yearmonthday", YearMonthDayType.class, yearMonthDays[i]);
+		}
+		
+		String[] timesOfDay = {
+			TimeOfDayUserType.DB_FORMAT_TIME,
+			TimeOfDayUserType.DB_FORMAT_STRING,
+			TimeOfDayUserType.DB_FORMAT_DATETIME,
+			TimeOfDayUserType.DB_FORMAT_NUMERIC
+		};
+		for (int i = 0; i < timesOfDay.length; i++) {
+			addTypeDef(mappings, "timeofday", TimeOfDayType.class, timesOfDay[i]);
+		}
+		
+		addTypeDef(mappings, "duration", DurationType.class, DurationType.DB_FORMAT_NUMERIC);
+		addTypeDef(mappings, "duration", DurationType.class, DurationType.DB_FORMAT_BIGINT);
+		
+		return configuration;
+	}
+	
+	private static void addTypeDef(Mappings mappings, String prefix, Class typeClass, String sqltype) {
+		Properties parameters = new Properties();
+		parameters.setProperty("sqltype", sqltype);
+		mappings.addTypeDef(prefix + "_" + sqltype, typeClass.getName(), parameters);
+	}
+}
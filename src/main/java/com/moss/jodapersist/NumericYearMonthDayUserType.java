@@ -45,7 +45,4 @@ public class NumericYearMonthDayUserType extends YearMonthDayUserType {
 	public NumericYearMonthDayUserType() {
 		super(YearMonthDayUserType.DB_FORMAT_NUMERIC);
 	}
-	public int getNullType() {
-		return YearMonthDayUserType.DB_FORMAT_NUMERIC_TYPES[0];
-	}
 }
@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Properties;
+
+import org.hibernate.HibernateException;
+import org.hibernate.usertype.ParameterizedType;
+import org.hibernate.usertype.UserType;
+import org.joda.time.Period;
+
+/**
+ * Persists a org.joda.time.Period in one of two forms, picked by the "sqltype" mapping
+ * parameter:
+ * <ul>
+ * 	<li>
+ * 		bigint (the default): one BIGINT packing the years and months as a count of 
+ * 		months into the top 20 bits and the rest as a count of milliseconds, assuming 
+ * 		7-day weeks and 24-hour days, into the low 44.  Values read back normalized, 
+ * 		each field carried into the next larger one, so PT90M reads as PT1H30M, and 
+ * 		compare equal whenever their normalized forms do.  The months must be within 
+ * 		2^19 and the milliseconds within 2^43 (about 278 years) either way of zero.
+ * 	</li>
+ * 	<li>
+ * 		integer: one INTEGER column per field, mapped in the order years, months, weeks,
+ * 		days, hours, minutes, seconds, millis.  Values read back exactly as written.
+ * 	</li>
+ * </ul>
+ * Either way the period is read in the standard PeriodType.
+ */
+public class PeriodUserType implements UserType, ParameterizedType {
+	
+	public static final String CLASS_NAME = "com.moss.jodapersist.PeriodUserType";
+	
+	public static final String 
+		DB_FORMAT_BIGINT = "bigint",
+		DB_FORMAT_INTEGER = "integer";
+	
+	private static final int[] 
+		DB_FORMAT_BIGINT_TYPES = { Types.BIGINT },
+		DB_FORMAT_INTEGER_TYPES = { 
+			Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.INTEGER, 
+			Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.INTEGER 
+		};
+	
+	private static final int FIELDS = 8;
+	
+	private static final int MILLIS_BITS = 44;
+	
+	private static final long 
+		MAX_MONTHS = (1L << (63 - MILLIS_BITS)) - 1,
+		MAX_MILLIS = (1L << (MILLIS_BITS - 1)) - 1,
+		MILLIS_MASK = (1L << MILLIS_BITS) - 1;
+	
+	private static final long 
+		MILLIS_PER_SECOND = 1000,
+		MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND,
+		MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE,
+		MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR,
+		MILLIS_PER_WEEK = 7 * MILLIS_PER_DAY;
+	
+	private boolean packed = true;
+	
+	public int[] sqlTypes() {
+		return packed ? DB_FORMAT_BIGINT_TYPES : DB_FORMAT_INTEGER_TYPES;
+	}
+	
+	public Object nullSafeGet(ResultSet resultSet, String[] names, Object owner) throws HibernateException, SQLException {
+		if (packed) {
+			long value = resultSet.getLong(names[0]);
+			if (resultSet.wasNull()) return null;
+			return unpack(value);
+		}
+		int[] fields = new int[FIELDS];
+		for (int i = 0; i < FIELDS; i++) {
+			fields[i] = resultSet.getInt(names[i]);
+			if (i == 0 && resultSet.wasNull()) return null;
+		}
+		return fromFields(fields);
+	}
+	
+	public void nullSafeSet(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException {
+		if (packed) {
+			if (value == null) {
+				statement.setNull(index, Types.BIGINT);
+			}
+			else {
+				statement.setLong(index, pack((Period)value));
+			}
+		}
+		else {
+			Period period = (Period)value;
+			for (int i = 0; i < FIELDS; i++) {
+				if (period == null) {
+					statement.setNull(index + i, Types.INTEGER);
+				}
+				else {
+					statement.setInt(index + i, field(period, i));
+				}
+			}
+		}
+	}
+	
+	public boolean isMutable() {
+		return false;
+	}
+	
+	public Object deepCopy(Object value) throws HibernateException {
+		return value;
+	}
+	
+	/**
+	 * @return the packed Long, or the fields as an int[], for the second-level cache
+	 */
+	public Serializable disassemble(Object value) throws HibernateException {
+		if (value == null) {
+			return null;
+		}
+		Period period = (Period)value;
+		if (packed) {
+			return new Long(pack(period));
+		}
+		int[] fields = new int[FIELDS];
+		for (int i = 0; i < FIELDS; i++) {
+			fields[i] = field(period, i);
+		}
+		return fields;
+	}
+	
+	public Object assemble(Serializable cached, Object owner) throws HibernateException {
+		if (cached == null) {
+			return null;
+		}
+		if (packed) {
+			return unpack(((Long)cached).longValue());
+		}
+		return fromFields((int[])cached);
+	}
+	
+	/**
+	 * Compares the stored forms, so that a period and the normalized one read back for it
+	 * are equal when packed.
+	 */
+	public boolean equals(Object x, Object y) throws HibernateException {
+		if (x == y) return true;
+		if (x == null || y == null) return false;
+		
+		Period a = (Period)x, b = (Period)y;
+		if (packed) {
+			return months(a) == months(b) && millis(a) == millis(b);
+		}
+		for (int i = 0; i < FIELDS; i++) {
+			if (field(a, i) != field(b, i)) return false;
+		}
+		return true;
+	}
+	
+	public int hashCode(Object x) throws HibernateException {
+		Period period = (Period)x;
+		if (packed) {
+			long hash = months(period) * 31 + millis(period);
+			return (int)(hash ^ (hash >>> 32));
+		}
+		int hash = 0;
+		for (int i = 0; i < FIELDS; i++) {
+			hash = hash * 31 + field(period, i);
+		}
+		return hash;
+	}
+	
+	public Object replace(Object original, Object target, Object owner) throws HibernateException {
+		return original;
+	}
+	
+	public Class returnedClass() {
+		return Period.class;
+	}
+	
+	public void setParameterValues(Properties p) {
+		if (p != null) {
+			String sqltype = p.getProperty("sqltype", DB_FORMAT_BIGINT);
+			if (DB_FORMAT_BIGINT.equals(sqltype)) {
+				packed = true;
+			}
+			else if (DB_FORMAT_INTEGER.equals(sqltype)) {
+				packed = false;
+			}
+			else throw new HibernateException("Unsupported sqltype for " + Period.class.getName() + ": " + sqltype);
+		}
+	}
+	
+	static long pack(Period period) throws HibernateException {
+		long months = months(period);
+		long millis = millis(period);
+		if (Math.abs(months) > MAX_MONTHS || Math.abs(millis) > MAX_MILLIS) {
+			throw new HibernateException("Period out of range for " + DB_FORMAT_BIGINT + ": " + period);
+		}
+		return (months << MILLIS_BITS) | (millis & MILLIS_MASK);
+	}
+	
+	static Period unpack(long value) {
+		int months = (int)(value >> MILLIS_BITS);
+		long millis = (value << (64 - MILLIS_BITS)) >> (64 - MILLIS_BITS);
+		
+		return new Period(
+			months / 12, 
+			months % 12, 
+			(int)(millis / MILLIS_PER_WEEK), 
+			(int)(millis % MILLIS_PER_WEEK / MILLIS_PER_DAY),
+			(int)(millis % MILLIS_PER_DAY / MILLIS_PER_HOUR), 
+			(int)(millis % MILLIS_PER_HOUR / MILLIS_PER_MINUTE), 
+			(int)(millis % MILLIS_PER_MINUTE / MILLIS_PER_SECOND), 
+			(int)(millis % MILLIS_PER_SECOND));
+	}
+	
+	private static long months(Period period) {
+		return period.getYears() * 12L + period.getMonths();
+	}
+	
+	private static long millis(Period period) {
+		return period.getWeeks() * MILLIS_PER_WEEK
+			+ period.getDays() * MILLIS_PER_DAY
+			+ period.getHours() * MILLIS_PER_HOUR
+			+ period.getMinutes() * MILLIS_PER_MINUTE
+			+ period.getSeconds() * MILLIS_PER_SECOND
+			+ period.getMillis();
+	}
+	
+	private static int field(Period period, int field) {
+		switch (field) {
+			case 0: return period.getYears();
+			case 1: return period.getMonths();
+			case 2: return period.getWeeks();
+			case 3: return period.getDays();
+			case 4: return period.getHours();
+			case 5: return period.getMinutes();
+			case 6: return period.getSeconds();
+			default: return period.getMillis();
+		}
+	}
+	
+	private static Period fromFields(int[] fields) {
+		return new Period(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6], fields[7]);
+	}
+}
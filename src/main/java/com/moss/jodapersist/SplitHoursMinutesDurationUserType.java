@@ -50,12 +50,20 @@ import org.hibernate.usertype.UserType;
 import org.joda.time.Hours;
 import org.joda.time.Period;
 
+/**
+ * Persists the hours and minutes of a org.joda.time.Period as two INTEGER columns; other
+ * fields are dropped.
+ * 
+ * @deprecated use {@link PeriodUserType}, which keeps every field
+ */
+@Deprecated
 public class SplitHoursMinutesDurationUserType  implements UserType, ParameterizedType {
 	static final int[] 
 	                 DB_FORMAT_NUMERIC_TYPES = new int[] { Types.INTEGER, Types.INTEGER };
 
 	public Object nullSafeGet(ResultSet resultSet, String[] names, Object arg2) throws HibernateException, SQLException{
 		int numHours = resultSet.getInt(names[0]);
+		if (resultSet.wasNull()) return null;
 		int numMinutes = resultSet.getInt(names[1]);
 		return Hours.hours(numHours).toPeriod().plusMinutes(numMinutes);
 	}
@@ -63,8 +71,14 @@ public class SplitHoursMinutesDurationUserType  implements UserType, Parameteriz
 	public void nullSafeSet(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException {
 		Period period = (Period) value;
 		
-		statement.setInt(index, period.getHours());
-		statement.setInt(index + 1, period.getDays());
+		if (period == null) {
+			statement.setNull(index, Types.INTEGER);
+			statement.setNull(index + 1, Types.INTEGER);
+		}
+		else {
+			statement.setInt(index, period.getHours());
+			statement.setInt(index + 1, period.getMinutes());
+		}
 	}
 
 	public int[] sqlTypes(){ return DB_FORMAT_NUMERIC_TYPES;}
@@ -88,7 +102,7 @@ public class SplitHoursMinutesDurationUserType  implements UserType, Parameteriz
 	}
 
 	public Object assemble(Serializable arg0, Object arg1) throws HibernateException {
-		return null;
+		return arg0;
 	}
 
 	public Object deepCopy(Object arg0) throws HibernateException {
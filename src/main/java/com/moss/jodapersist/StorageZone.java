@@ -0,0 +1,271 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.HibernateException;
+
+/**
+ * The time zone whose wall-clock time a timestamp column holds, configured with the
+ * "timezone" mapping parameter.  Instances are shared between user types and are safe
+ * to use from any number of sessions at once.
+ * <p>
+ * The "zoneConversion" mapping parameter picks how Timestamps are converted:
+ * </p>
+ * <ul>
+ * 	<li>calendar (the default) hands the driver a Calendar in the storage zone, one per
+ * 	thread, and leaves the conversion to it.</li>
+ * 	<li>offsets binds and reads Timestamps in the JVM's zone and shifts them to the
+ * 	storage zone with {@link ZoneOffsetTable}s.  The exception is the hour or so after
+ * 	each of the JVM zone's forward transitions: wall-clock times skipped by the 
+ * 	transition can't be expressed as a Timestamp in the JVM's zone, so those values still
+ * 	go through the Calendar.</li>
+ * </ul>
+ * <p>
+ * The two store the same values on drivers which apply the Calendar.  Drivers which 
+ * ignore it (HSQLDB among them) store the JVM zone's wall-clock time under calendar 
+ * conversion but the storage zone's under offsets conversion, so switching an existing
+ * column to offsets conversion on such a driver needs its rows shifted by the difference
+ * between the two zones first.
+ * </p>
+ * <p>
+ * A StorageZone serializes as its ID and conversion, and deserializes to the shared
+ * instance for them.
+ * </p>
+ */
+final class StorageZone implements Serializable {
+	
+	static final String DEFAULT_ID = "America/New_York";
+	
+	static final String
+		CONVERSION_CALENDAR = "calendar",
+		CONVERSION_OFFSETS = "offsets";
+	
+	private static final Map<String, StorageZone> ZONES = new ConcurrentHashMap<String, StorageZone>();
+	
+	private final ZoneOffsetTable storage;
+	private final ZoneOffsetTable jvm;
+	
+	/**
+	 * Whether the JVM's zone has the same rules as the storage zone, in which case a
+	 * Timestamp's millis can be used as they are.
+	 */
+	private final boolean same;
+	
+	/**
+	 * Whether the driver is handed the Calendar for every value
+	 */
+	private final boolean calendar;
+	
+	private final ThreadLocal<Calendar> calendars;
+	
+	private StorageZone(ZoneOffsetTable storage, ZoneOffsetTable jvm, boolean calendar) {
+		this.storage = storage;
+		this.jvm = jvm;
+		this.same = storage.hasSameRules(jvm);
+		this.calendar = calendar;
+		
+		final String id = storage.getID();
+		this.calendars = new ThreadLocal<Calendar>() {
+			protected Calendar initialValue() {
+				return new GregorianCalendar(TimeZone.getTimeZone(id));
+			}
+		};
+	}
+	
+	static StorageZone getDefault() {
+		return forID(DEFAULT_ID);
+	}
+	
+	static StorageZone forID(String id) throws HibernateException {
+		return forID(id, CONVERSION_CALENDAR);
+	}
+	
+	/**
+	 * @param id any ID {@link TimeZone#getTimeZone(String)} knows, e.g. GMT+5
+	 * @param conversion {@link #CONVERSION_CALENDAR} or {@link #CONVERSION_OFFSETS}
+	 */
+	static StorageZone forID(String id, String conversion) throws HibernateException {
+		boolean calendar;
+		if (CONVERSION_CALENDAR.equals(conversion)) {
+			calendar = true;
+		}
+		else if (CONVERSION_OFFSETS.equals(conversion)) {
+			calendar = false;
+		}
+		else throw new HibernateException("Unsupported zoneConversion: " + conversion);
+		
+		TimeZone timeZone = TimeZone.getTimeZone(id);
+		if (timeZone.getID().equals("GMT") && !id.equals("GMT")) {
+			throw new HibernateException("Unknown timezone: " + id);
+		}
+		
+		String key = timeZone.getID() + " " + conversion;
+		StorageZone zone = ZONES.get(key);
+		if (zone == null) {
+			zone = new StorageZone(new ZoneOffsetTable(timeZone), ZoneOffsetTable.jvm(), calendar);
+			ZONES.put(key, zone);
+		}
+		return zone;
+	}
+	
+	String getID() {
+		return storage.getID();
+	}
+	
+	ZoneOffsetTable getOffsets() {
+		return storage;
+	}
+	
+	/**
+	 * @return the instant stored in the column, or 0 if it is null (check wasNull())
+	 */
+	long getTimestamp(ResultSet resultSet, int column) throws SQLException {
+		if (calendar && !same) {
+			Timestamp timestamp = getTimestampInZone(resultSet, column);
+			return timestamp == null ? 0 : timestamp.getTime();
+		}
+		Timestamp timestamp = resultSet.getTimestamp(column);
+		if (timestamp == null) {
+			return 0;
+		}
+		long jdbcMillis = timestamp.getTime();
+		if (same) {
+			return jdbcMillis;
+		}
+		if (jvm.followsGap(jdbcMillis)) {
+			return resultSet.getTimestamp(column, calendars.get()).getTime();
+		}
+		return storage.toUtc(jvm.toLocal(jdbcMillis));
+	}
+	
+	void setTimestamp(PreparedStatement statement, int index, long utcMillis) throws SQLException {
+		if (same) {
+			statement.setTimestamp(index, new Timestamp(utcMillis));
+			return;
+		}
+		if (calendar) {
+			statement.setTimestamp(index, new Timestamp(utcMillis), calendars.get());
+			return;
+		}
+		long localMillis = storage.toLocal(utcMillis);
+		long jdbcMillis = jvm.toUtc(localMillis);
+		if (jvm.toLocal(jdbcMillis) == localMillis) {
+			statement.setTimestamp(index, new Timestamp(jdbcMillis));
+		}
+		else {
+			statement.setTimestamp(index, new Timestamp(utcMillis), calendars.get());
+		}
+	}
+	
+	/**
+	 * @return the wall-clock time stored in the column as millis from 1970-01-01T00:00
+	 * 	local time, or 0 if it is null (check wasNull())
+	 */
+	long getLocalTimestamp(ResultSet resultSet, int column) throws SQLException {
+		if (calendar && !same) {
+			Timestamp timestamp = getTimestampInZone(resultSet, column);
+			return timestamp == null ? 0 : storage.toLocal(timestamp.getTime());
+		}
+		Timestamp timestamp = resultSet.getTimestamp(column);
+		if (timestamp == null) {
+			return 0;
+		}
+		long jdbcMillis = timestamp.getTime();
+		if (!same && jvm.followsGap(jdbcMillis)) {
+			return storage.toLocal(resultSet.getTimestamp(column, calendars.get()).getTime());
+		}
+		return jvm.toLocal(jdbcMillis);
+	}
+	
+	/**
+	 * @param localMillis a wall-clock time as millis from 1970-01-01T00:00 local time
+	 */
+	void setLocalTimestamp(PreparedStatement statement, int index, long localMillis) throws SQLException {
+		if (calendar && !same) {
+			statement.setTimestamp(index, new Timestamp(storage.toUtc(localMillis)), calendars.get());
+			return;
+		}
+		long jdbcMillis = jvm.toUtc(localMillis);
+		if (same || jvm.toLocal(jdbcMillis) == localMillis) {
+			statement.setTimestamp(index, new Timestamp(jdbcMillis));
+		}
+		else {
+			statement.setTimestamp(index, new Timestamp(storage.toUtc(localMillis)), calendars.get());
+		}
+	}
+	
+	/**
+	 * HSQLDB ignores the Calendar given to getTimestamp, and fails on a null column when
+	 * given one, so its ResultSets are read without; the value is the same either way.
+	 */
+	private Timestamp getTimestampInZone(ResultSet resultSet, int column) throws SQLException {
+		if (resultSet.getClass().getName().startsWith("org.hsqldb.")) {
+			return resultSet.getTimestamp(column);
+		}
+		return resultSet.getTimestamp(column, calendars.get());
+	}
+	
+	private Object writeReplace() {
+		return new Ref(getID(), calendar ? CONVERSION_CALENDAR : CONVERSION_OFFSETS);
+	}
+	
+	private static final class Ref implements Serializable {
+		private final String id;
+		private final String conversion;
+		
+		Ref(String id, String conversion) {
+			this.id = id;
+			this.conversion = conversion;
+		}
+		
+		private Object readResolve() {
+			return forID(id, conversion);
+		}
+	}
+}
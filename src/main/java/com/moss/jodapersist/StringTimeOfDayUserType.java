@@ -37,56 +37,26 @@
  */
 package com.moss.jodapersist;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Timestamp;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
-
-import org.hibernate.HibernateException;
-import org.joda.time.DateTimeZone;
-import org.joda.time.TimeOfDay;
-
 /**
- * Persists to/from strings of the format hh:mm (no milliseconds or seconds persisted)
+ * Persists to/from strings of the format HH:mm (24-hour clock, no seconds or milliseconds
+ * persisted).
+ * <p>
+ * 	Versions before this one wrote a 12-hour hh:mm without AM/PM: 00:30 as "12:30" and
+ * 	17:45 as "05:45".  Such rows can't be told apart from morning and noon times, so
+ * 	they read back as those, as they always have; correcting them needs the original
+ * 	values from elsewhere.  Setting the "format" mapping parameter to hh:mm keeps
+ * 	writing the old strings, for columns still written or queried by earlier versions.
+ * 	Reading is the same either way.
+ * </p>
  * @author stu
  *
  */
 public class StringTimeOfDayUserType extends TimeOfDayUserType{
-	private DateFormat formatter = new SimpleDateFormat("hh:mm");
+	public static final String
+		FORMAT_24_HOUR = "HH:mm",
+		FORMAT_12_HOUR = "hh:mm";
 	
-	public int[] sqlTypes() {
-		return TimeOfDayUserType.DB_FORMAT_STRING_TYPES;
+	public StringTimeOfDayUserType() {
+		super(TimeOfDayUserType.DB_FORMAT_STRING);
 	}
-	
-	public Object nullSafeGet(ResultSet resultSet, String[] names, Object arg2) throws HibernateException, SQLException {
-		Calendar calendar = new GregorianCalendar(timeZone);
-		
-		String time = resultSet.getString(names[0]);
-		if(time==null) return null;
-		String[] pieces = time.split(":");
-		if(pieces.length!=2) throw new HibernateException("Invalid format (should be hh:mm) \"" + time + "\"");
-		
-		return new TimeOfDay(Integer.parseInt(pieces[0]), Integer.parseInt(pieces[1]));
-	}
-	
-	public void nullSafeSet(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException 
-	{
-		
-		if(value==null){
-			statement.setString(index, null);
-		}else{
-			TimeOfDay tmd = (TimeOfDay)value;
-			long millisInZone = tmd.toDateTimeToday(DateTimeZone.forTimeZone(timeZone)).getMillis();
-			Timestamp timestamp = new Timestamp(millisInZone);
-			
-			statement.setString(index, formatter.format(tmd.toDateTimeToday(DateTimeZone.forTimeZone(super.timeZone)).toDate()));	
-		}
-	}
-	
-	
-	
 }
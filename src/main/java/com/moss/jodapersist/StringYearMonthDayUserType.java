@@ -42,8 +42,5 @@ public class StringYearMonthDayUserType extends YearMonthDayUserType {
 	public StringYearMonthDayUserType() {
 		super(YearMonthDayUserType.DB_FORMAT_STRING);
 	}
-	public int getNullType() {
-		return YearMonthDayUserType.DB_FORMAT_STRING_TYPES[0];
-	}
 
 }
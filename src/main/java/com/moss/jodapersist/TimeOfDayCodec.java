@@ -0,0 +1,366 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Types;
+import java.util.Properties;
+import java.util.TimeZone;
+
+import org.hibernate.HibernateException;
+import org.joda.time.DateTimeFieldType;
+import org.joda.time.DateTimeUtils;
+import org.joda.time.IllegalFieldValueException;
+import org.joda.time.TimeOfDay;
+import org.joda.time.YearMonthDay;
+
+import com.moss.hibernate.util.ColumnIndexes;
+
+/**
+ * Reads and writes a org.joda.time.TimeOfDay, as a millisecond of day, in one of the
+ * sqltypes supported by {@link TimeOfDayType}.
+ * <p>
+ * 	Codecs are immutable and serializable, so a type can hold its codec as its only
+ * 	configured state.
+ * </p>
+ */
+abstract class TimeOfDayCodec extends SqlCodec {
+	
+	static final TimeOfDayCodec
+		TIME = new AnsiTime(),
+		STRING = new Str(false),
+		STRING_12_HOUR = new Str(true),
+		NUMERIC = new Numeric(1);
+	
+	/**
+	 * The zone datetime columns hold when no "timezone" mapping parameter is given
+	 */
+	static final String DEFAULT_TIMEZONE = "EST";
+	
+	static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+	
+	TimeOfDayCodec(String sqltype, int sqlType) {
+		super(sqltype, sqlType);
+	}
+	
+	/**
+	 * Reads the column exactly once.
+	 * 
+	 * @return the TimeOfDay stored in the column, or null
+	 */
+	final TimeOfDay get(ResultSet resultSet, String column) throws SQLException {
+		int millisOfDay = getMillisOfDay(resultSet, ColumnIndexes.indexOf(resultSet, column));
+		if (resultSet.wasNull()) {
+			return null;
+		}
+		return TimeOfDayTable.forMillisOfDay(millisOfDay);
+	}
+	
+	final void set(PreparedStatement statement, int index, TimeOfDay tmd) throws SQLException {
+		setMillisOfDay(statement, index, millisOfDay(tmd));
+	}
+	
+	/**
+	 * @return the stored millisecond of day, or 0 if the column is null (check wasNull())
+	 */
+	abstract int getMillisOfDay(ResultSet resultSet, int column) throws SQLException;
+	
+	abstract void setMillisOfDay(PreparedStatement statement, int index, int millisOfDay) throws SQLException;
+	
+	/**
+	 * @param parameters the mapping parameters; "timezone", "zoneConversion" and
+	 * 	"anchorDate" apply to datetime columns, "format" to string ones and "resolution"
+	 * 	to numeric ones
+	 */
+	static TimeOfDayCodec forSqltype(String sqltype, Properties parameters) throws HibernateException {
+		if (parameters == null) {
+			parameters = new Properties();
+		}
+		
+		if (TimeOfDayUserType.DB_FORMAT_TIME.equals(sqltype)) {
+			return TIME;
+		}
+		else if (TimeOfDayUserType.DB_FORMAT_STRING.equals(sqltype)) {
+			String format = parameters.getProperty("format", StringTimeOfDayUserType.FORMAT_24_HOUR);
+			if (StringTimeOfDayUserType.FORMAT_24_HOUR.equals(format)) {
+				return STRING;
+			}
+			else if (StringTimeOfDayUserType.FORMAT_12_HOUR.equals(format)) {
+				return STRING_12_HOUR;
+			}
+			else throw new HibernateException("Unsupported format for " + TimeOfDay.class.getName() + ": " + format);
+		}
+		else if (TimeOfDayUserType.DB_FORMAT_DATETIME.equals(sqltype)) {
+			// unknown IDs fall back to GMT, as TimeZone.getTimeZone does
+			String timezone = TimeZone.getTimeZone(parameters.getProperty("timezone", DEFAULT_TIMEZONE)).getID();
+			StorageZone zone = StorageZone.forID(timezone, parameters.getProperty("zoneConversion", StorageZone.CONVERSION_CALENDAR));
+			
+			String anchorDate = parameters.getProperty("anchorDate");
+			if (anchorDate == null) {
+				return new Datetime(zone, false, 0);
+			}
+			YearMonthDay ymd;
+			try {
+				ymd = new YearMonthDay(anchorDate);
+			}
+			catch (IllegalArgumentException e) {
+				throw new HibernateException("Invalid anchorDate (should be yyyy-MM-dd): " + anchorDate);
+			}
+			return new Datetime(zone, true, YearMonthDayCodec.toEpochDay(YearMonthDayCodec.toInt(ymd)) * MILLIS_PER_DAY);
+		}
+		else if (TimeOfDayUserType.DB_FORMAT_NUMERIC.equals(sqltype)) {
+			String resolution = parameters.getProperty("resolution", NumericTimeOfDayUserType.RESOLUTION_MILLIS);
+			if (NumericTimeOfDayUserType.RESOLUTION_MILLIS.equals(resolution)) {
+				return NUMERIC;
+			}
+			else if (NumericTimeOfDayUserType.RESOLUTION_SECONDS.equals(resolution)) {
+				return new Numeric(1000);
+			}
+			else if (NumericTimeOfDayUserType.RESOLUTION_MINUTES.equals(resolution)) {
+				return new Numeric(60 * 1000);
+			}
+			else throw new HibernateException("Unsupported resolution for " + TimeOfDay.class.getName() + ": " + resolution);
+		}
+		else throw new HibernateException("Unsupported sqltype for " + TimeOfDay.class.getName() + ": " + sqltype);
+	}
+	
+	static int millisOfDay(TimeOfDay tmd) {
+		return ((tmd.getHourOfDay() * 60 + tmd.getMinuteOfHour()) * 60 + tmd.getSecondOfMinute()) * 1000 + tmd.getMillisOfSecond();
+	}
+	
+	static long floorMod(long millis, long divisor) {
+		long mod = millis % divisor;
+		return mod < 0 ? mod + divisor : mod;
+	}
+	
+	/**
+	 * An ANSI TIME, through java.sql.Time values holding the time on 1970-01-01 in the
+	 * JVM's zone.
+	 */
+	private static final class AnsiTime extends TimeOfDayCodec {
+		AnsiTime() {
+			super(TimeOfDayUserType.DB_FORMAT_TIME, Types.TIME);
+		}
+		
+		int getMillisOfDay(ResultSet resultSet, int column) throws SQLException {
+			Time time = resultSet.getTime(column);
+			if (time == null) return 0;
+			
+			long localMillis = ZoneOffsetTable.jvm().toLocal(time.getTime());
+			return (int)floorMod(localMillis, MILLIS_PER_DAY);
+		}
+		
+		void setMillisOfDay(PreparedStatement statement, int index, int millisOfDay) throws SQLException {
+			statement.setTime(index, new Time(ZoneOffsetTable.jvm().toUtc(millisOfDay)));
+		}
+		
+		private Object readResolve() {
+			return TIME;
+		}
+	}
+	
+	/**
+	 * An HH:mm string, or the hh:mm string of earlier versions; seconds and milliseconds
+	 * are dropped.  Either is read as HH:mm.
+	 */
+	private static final class Str extends TimeOfDayCodec {
+		private static final int MINUTES_PER_DAY = 24 * 60;
+		
+		/**
+		 * Every value this codec can write, indexed by minute of day.
+		 */
+		private static final String[] FORMATTED = new String[MINUTES_PER_DAY];
+		
+		static {
+			for (int i = 0; i < MINUTES_PER_DAY; i++) {
+				FORMATTED[i] = new String(new char[] {
+					(char)('0' + i / 600), 
+					(char)('0' + i / 60 % 10), 
+					':', 
+					(char)('0' + i % 60 / 10), 
+					(char)('0' + i % 10)
+				});
+			}
+		}
+		
+		/**
+		 * Whether hours are written 12-hour, without AM/PM, as earlier versions did
+		 */
+		private final boolean twelveHour;
+		
+		Str(boolean twelveHour) {
+			super(TimeOfDayUserType.DB_FORMAT_STRING, Types.VARCHAR);
+			this.twelveHour = twelveHour;
+		}
+		
+		int getMillisOfDay(ResultSet resultSet, int column) throws SQLException {
+			String time = resultSet.getString(column);
+			if (time == null) return 0;
+			
+			return parse(time);
+		}
+		
+		void setMillisOfDay(PreparedStatement statement, int index, int millisOfDay) throws SQLException {
+			int minuteOfDay = millisOfDay / (60 * 1000);
+			if (twelveHour) {
+				// 00:xx is written 12:xx and 13:xx to 23:xx as 01:xx to 11:xx
+				int hour = minuteOfDay / 60 % 12;
+				minuteOfDay = (hour == 0 ? 12 : hour) * 60 + minuteOfDay % 60;
+			}
+			statement.setString(index, FORMATTED[minuteOfDay]);
+		}
+		
+		/**
+		 * Accepts one or two digit hours and minutes, as the previous split-based parser did.
+		 * 
+		 * @return the millisecond of day
+		 */
+		private static int parse(String time) throws HibernateException {
+			int length = time.length();
+			int hours = 0, minutes = 0;
+			int colon = -1;
+			
+			for (int i = 0; i < length; i++) {
+				char c = time.charAt(i);
+				if (c >= '0' && c <= '9') {
+					if (colon < 0) {
+						hours = hours * 10 + (c - '0');
+					}
+					else {
+						minutes = minutes * 10 + (c - '0');
+					}
+				}
+				else if (c != ':' || colon >= 0) {
+					throw invalid(time);
+				}
+				else {
+					colon = i;
+				}
+			}
+			if (colon < 1 || colon > 2 || length - colon - 1 < 1 || length - colon - 1 > 2) {
+				throw invalid(time);
+			}
+			if (hours > 23) {
+				throw new IllegalFieldValueException(DateTimeFieldType.hourOfDay(), new Integer(hours), new Integer(0), new Integer(23));
+			}
+			if (minutes > 59) {
+				throw new IllegalFieldValueException(DateTimeFieldType.minuteOfHour(), new Integer(minutes), new Integer(0), new Integer(59));
+			}
+			return (hours * 60 + minutes) * 60 * 1000;
+		}
+		
+		private static HibernateException invalid(String time) {
+			return new HibernateException("Invalid format (should be HH:mm) \"" + time + "\"");
+		}
+		
+		private Object readResolve() {
+			return twelveHour ? STRING_12_HOUR : STRING;
+		}
+	}
+	
+	/**
+	 * A timestamp holding the wall-clock time in a {@link StorageZone}, on either the day
+	 * the value is written or a fixed anchor date.
+	 */
+	private static final class Datetime extends TimeOfDayCodec {
+		private final StorageZone zone;
+		
+		/**
+		 * Whether values are written on a fixed date rather than the current day
+		 */
+		private final boolean anchored;
+		
+		/**
+		 * The anchor date's local midnight in millis from 1970-01-01T00:00
+		 */
+		private final long anchorMillis;
+		
+		Datetime(StorageZone zone, boolean anchored, long anchorMillis) {
+			super(TimeOfDayUserType.DB_FORMAT_DATETIME, Types.TIMESTAMP);
+			this.zone = zone;
+			this.anchored = anchored;
+			this.anchorMillis = anchorMillis;
+		}
+		
+		int getMillisOfDay(ResultSet resultSet, int column) throws SQLException {
+			return (int)floorMod(zone.getLocalTimestamp(resultSet, column), MILLIS_PER_DAY);
+		}
+		
+		void setMillisOfDay(PreparedStatement statement, int index, int millisOfDay) throws SQLException {
+			zone.setLocalTimestamp(statement, index, anchor() + millisOfDay);
+		}
+		
+		private long anchor() {
+			if (anchored) {
+				return anchorMillis;
+			}
+			final long today = zone.getOffsets().toLocal(DateTimeUtils.currentTimeMillis());
+			return today - floorMod(today, MILLIS_PER_DAY);
+		}
+	}
+	
+	/**
+	 * An INTEGER count of milliseconds, seconds or minutes since midnight.
+	 */
+	private static final class Numeric extends TimeOfDayCodec {
+		/**
+		 * Milliseconds per stored unit
+		 */
+		private final int unit;
+		
+		Numeric(int unit) {
+			super(TimeOfDayUserType.DB_FORMAT_NUMERIC, Types.INTEGER);
+			this.unit = unit;
+		}
+		
+		int getMillisOfDay(ResultSet resultSet, int column) throws SQLException {
+			int units = resultSet.getInt(column);
+			if (units < 0 || units >= MILLIS_PER_DAY / unit) {
+				throw new HibernateException("Invalid time of day for resolution of " + unit + "ms: " + units);
+			}
+			return units * unit;
+		}
+		
+		void setMillisOfDay(PreparedStatement statement, int index, int millisOfDay) throws SQLException {
+			statement.setInt(index, millisOfDay / unit);
+		}
+	}
+}
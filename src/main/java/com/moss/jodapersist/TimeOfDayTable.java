@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.joda.time.Chronology;
+import org.joda.time.TimeOfDay;
+import org.joda.time.chrono.ISOChronology;
+
+/**
+ * Shared TimeOfDay instances for minute- and second-aligned times, so that hydrating
+ * the usual hh:mm or hh:mm:ss column values doesn't allocate.  The 1440 minute values
+ * are built up front; second values are filled in the first time they're asked for.
+ * Everything else gets a new instance.  All instances use the ISO UTC chronology, same
+ * as the TimeOfDay constructors.
+ */
+final class TimeOfDayTable {
+	
+	private static final int
+		MILLIS_PER_SECOND = 1000,
+		MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND,
+		MINUTES_PER_DAY = 24 * 60,
+		SECONDS_PER_DAY = MINUTES_PER_DAY * 60;
+	
+	private static final Chronology CHRONOLOGY = ISOChronology.getInstanceUTC();
+	
+	private static final TimeOfDay[] MINUTES = new TimeOfDay[MINUTES_PER_DAY];
+	
+	private static final AtomicReferenceArray<TimeOfDay> SECONDS = new AtomicReferenceArray<TimeOfDay>(SECONDS_PER_DAY);
+	
+	static {
+		for (int i = 0; i < MINUTES_PER_DAY; i++) {
+			MINUTES[i] = new TimeOfDay(i / 60, i % 60, 0, 0, CHRONOLOGY);
+		}
+	}
+	
+	private TimeOfDayTable() {}
+	
+	/**
+	 * @param millisOfDay 0 (inclusive) to 24 hours (exclusive)
+	 */
+	static TimeOfDay forMillisOfDay(int millisOfDay) {
+		if (millisOfDay % MILLIS_PER_MINUTE == 0) {
+			return MINUTES[millisOfDay / MILLIS_PER_MINUTE];
+		}
+		else if (millisOfDay % MILLIS_PER_SECOND == 0) {
+			int second = millisOfDay / MILLIS_PER_SECOND;
+			TimeOfDay tmd = SECONDS.get(second);
+			if (tmd == null) {
+				tmd = new TimeOfDay(millisOfDay, CHRONOLOGY);
+				SECONDS.lazySet(second, tmd);
+			}
+			return tmd;
+		}
+		else {
+			return new TimeOfDay(millisOfDay, CHRONOLOGY);
+		}
+	}
+	
+	/**
+	 * Validates the fields the same way the TimeOfDay constructor would.
+	 */
+	static TimeOfDay forFields(int hourOfDay, int minuteOfHour, int secondOfMinute) {
+		if (hourOfDay < 0 || hourOfDay > 23 || minuteOfHour < 0 || minuteOfHour > 59 || secondOfMinute < 0 || secondOfMinute > 59) {
+			return new TimeOfDay(hourOfDay, minuteOfHour, secondOfMinute, CHRONOLOGY);
+		}
+		return forMillisOfDay(((hourOfDay * 60 + minuteOfHour) * 60 + secondOfMinute) * MILLIS_PER_SECOND);
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.hibernate.EntityMode;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.type.ImmutableType;
+import org.hibernate.usertype.ParameterizedType;
+import org.joda.time.TimeOfDay;
+
+/**
+ * A Hibernate type for org.joda.time.TimeOfDay, usable directly as a mapping's type so the
+ * property skips the CustomType wrapper the TimeOfDayUserTypes need.
+ * <p>
+ * 	The "sqltype" mapping parameter picks the column format: time (the default, as
+ * 	{@link AnsiTimeOfDay}), string ({@link StringTimeOfDayUserType}), datetime 
+ * 	({@link TimestampTimeOfDayUserType}) or numeric ({@link NumericTimeOfDayUserType}).
+ * 	The other parameters are those of the matching user type.
+ * </p>
+ */
+public class TimeOfDayType extends ImmutableType implements ParameterizedType {
+	
+	/**
+	 * Set on the shared {@link JodaTypes} constants, which mustn't be reconfigured
+	 */
+	private boolean frozen;
+	
+	private TimeOfDayCodec codec;
+	
+	public TimeOfDayType() {
+		this(TimeOfDayUserType.DB_FORMAT_TIME, null);
+	}
+	
+	TimeOfDayType(String sqltype, Properties parameters) {
+		codec = TimeOfDayCodec.forSqltype(sqltype, parameters);
+	}
+	
+	TimeOfDayCodec getCodec() {
+		return codec;
+	}
+	
+	/**
+	 * Applies the mapping parameters other than "sqltype", for the TimeOfDayUserTypes,
+	 * whose sqltype is fixed.
+	 */
+	void configure(Properties p) {
+		codec = TimeOfDayCodec.forSqltype(codec.getSqltype(), p);
+	}
+	
+	public Object get(ResultSet resultSet, String name) throws HibernateException, SQLException {
+		return codec.get(resultSet, name);
+	}
+	
+	public void set(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException {
+		codec.set(statement, index, (TimeOfDay)value);
+	}
+	
+	/**
+	 * Compares the millisecond of day when both times share a Chronology, rather than 
+	 * through TimeOfDay.equals, which also compares every field's type.
+	 */
+	public boolean isEqual(Object x, Object y) {
+		if (x == y) return true;
+		if (x == null || y == null) return false;
+		
+		TimeOfDay a = (TimeOfDay)x, b = (TimeOfDay)y;
+		if (a.getChronology() == b.getChronology()) {
+			return TimeOfDayCodec.millisOfDay(a) == TimeOfDayCodec.millisOfDay(b);
+		}
+		return a.equals(b);
+	}
+	
+	public int getHashCode(Object x, EntityMode entityMode) {
+		return TimeOfDayCodec.millisOfDay((TimeOfDay)x);
+	}
+	
+	/**
+	 * @return the millisecond of day as an Integer, which the second-level cache holds
+	 * 	more compactly than the TimeOfDay and its Chronology
+	 */
+	public Serializable disassemble(Object value, SessionImplementor session, Object owner) throws HibernateException {
+		return value == null ? null : new Integer(TimeOfDayCodec.millisOfDay((TimeOfDay)value));
+	}
+	
+	/**
+	 * Also takes the TimeOfDay itself, which is what entries cached before the millisecond
+	 * of day were hold.
+	 */
+	public Object assemble(Serializable cached, SessionImplementor session, Object owner) throws HibernateException {
+		if (cached == null || cached instanceof TimeOfDay) {
+			return cached;
+		}
+		return TimeOfDayTable.forMillisOfDay(((Integer)cached).intValue());
+	}
+	
+	public int sqlType() {
+		return codec.getNullType();
+	}
+	
+	public String toString(Object value) throws HibernateException {
+		return value.toString();
+	}
+	
+	public Object fromStringValue(String xml) throws HibernateException {
+		return new TimeOfDay(xml);
+	}
+	
+	public Class getReturnedClass() {
+		return TimeOfDay.class;
+	}
+	
+	public String getName() {
+		return "timeofday";
+	}
+	
+	/**
+	 * Makes setParameterValues throw, for the shared {@link JodaTypes} constants
+	 */
+	TimeOfDayType freeze() {
+		frozen = true;
+		return this;
+	}
+	
+	public void setParameterValues(Properties p) {
+		if (frozen) {
+			throw new UnsupportedOperationException("The shared " + getName() + " types in JodaTypes can't be reconfigured");
+		}
+		if (p != null) {
+			codec = TimeOfDayCodec.forSqltype(p.getProperty("sqltype", codec.getSqltype()), p);
+		}
+	}
+}
@@ -41,9 +41,7 @@ import java.io.Serializable;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Types;
 import java.util.Properties;
-import java.util.TimeZone;
 
 import org.hibernate.HibernateException;
 import org.hibernate.usertype.ParameterizedType;
@@ -59,12 +57,14 @@ import org.joda.time.TimeOfDay;
  * 	</b>
  * </p>
  * <p>
- * 	Persists a org.joda.time.YearMonthDay as one of a variety of sql types, depending on
- * 	settings specified in a property's mapping parameters.
+ * 	Persists a org.joda.time.TimeOfDay as one of a variety of sql types, depending on
+ * 	the subclass.  Reads and writes through a {@link TimeOfDayType}, which can also be
+ * 	mapped directly.
  * </p>
- * @see com.moss.jodapersist.TimestampYearMonthDayUserType
- * @see com.moss.jodapersist.NumericYearMonthDayUserType
- * @see com.moss.jodapersist.StringYearMonthDayUserType
+ * @see com.moss.jodapersist.AnsiTimeOfDay
+ * @see com.moss.jodapersist.StringTimeOfDayUserType
+ * @see com.moss.jodapersist.TimestampTimeOfDayUserType
+ * @see com.moss.jodapersist.NumericTimeOfDayUserType
  */
 public abstract class TimeOfDayUserType implements UserType, ParameterizedType {
 	static final String 
@@ -73,19 +73,15 @@ public abstract class TimeOfDayUserType implements UserType, ParameterizedType {
 		DB_FORMAT_STRING = "string",
 		DB_FORMAT_TIME = "time";
 	
-	static final int[] 
-	    DB_FORMAT_NUMERIC_TYPES = new int[] { Types.NUMERIC },
-	    DB_FORMAT_DATETIME_TYPES = new int[] { Types.TIMESTAMP },
-	    DB_FORMAT_STRING_TYPES = new int[] { Types.VARCHAR },
-		DB_FORMAT_TIMEOFDAY_TYPES = new int[] {Types.TIME};
+	private final TimeOfDayType type;
 	
-	static final String
-		TIME_OFFSET_NONE = "none",
-		TIME_OFFSET_NOON = "noon";
-	
-	TimeZone timeZone = TimeZone.getTimeZone("EST");
+	TimeOfDayUserType(String sqltype) {
+		type = new TimeOfDayType(sqltype, null);
+	}
 	
-	public TimeOfDayUserType(){}
+	TimeOfDayCodec getCodec() {
+		return type.getCodec();
+	}
 
 	public Object fromXMLString(String xmlValue) {
 		return null;
@@ -99,15 +95,16 @@ public abstract class TimeOfDayUserType implements UserType, ParameterizedType {
 		return "IMPLEMENT ME!!";
 	}
 
-	public abstract int[] sqlTypes();
-
+	public int[] sqlTypes() {
+		return type.getCodec().sqlTypes();
+	}
 	
 	public boolean isMutable() {
 		return false;
 	}
 
 	public Object assemble(Serializable arg0, Object arg1) throws HibernateException {
-		return null;
+		return type.assemble(arg0, null, arg1);
 	}
 
 	public Object deepCopy(Object arg0) throws HibernateException {
@@ -116,24 +113,24 @@ public abstract class TimeOfDayUserType implements UserType, ParameterizedType {
 	}
 
 	public Serializable disassemble(Object arg0) throws HibernateException {
-		return (Serializable)arg0;
+		return type.disassemble(arg0, null, null);
 	}
 
 	public boolean equals(Object arg0, Object arg1) throws HibernateException {
-		if(arg0==null && arg1 == null) return true;
-		if(arg0==null || arg1==null) return false;
-		return arg0.equals(arg1);
+		return type.isEqual(arg0, arg1);
 	}
 
 	public int hashCode(Object arg0) throws HibernateException {
-		return arg0.hashCode();
+		return type.getHashCode(arg0, null);
 	}
 
-	public abstract Object nullSafeGet(ResultSet resultSet, String[] names, Object arg2) throws HibernateException, SQLException;
-
-	public abstract void nullSafeSet(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException ;
+	public Object nullSafeGet(ResultSet resultSet, String[] names, Object arg2) throws HibernateException, SQLException {
+		return type.get(resultSet, names[0]);
+	}
 
-	
+	public void nullSafeSet(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException {
+		type.nullSafeSet(statement, value, index);
+	}
 	
 	public Object replace(Object original, Object target, Object owner) throws HibernateException {
 		return original;
@@ -142,15 +139,10 @@ public abstract class TimeOfDayUserType implements UserType, ParameterizedType {
 	public Class returnedClass() {
 		return TimeOfDay.class;
 	}
-
-	
-	
-	
 	
 	public void setParameterValues(Properties p) {
-		if(p!=null){
-			String timezoneId = (String) p.get("timezone");
-			if(timezoneId!=null) timeZone = TimeZone.getTimeZone(timezoneId);
+		if (p != null) {
+			type.configure(p);
 		}
 	}
 }
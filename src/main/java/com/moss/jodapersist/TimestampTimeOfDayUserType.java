@@ -37,44 +37,20 @@
  */
 package com.moss.jodapersist;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Timestamp;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
-
-import org.hibernate.HibernateException;
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
-import org.joda.time.TimeOfDay;
-
+/**
+ * Persists a org.joda.time.TimeOfDay as a timestamp holding that wall-clock time in the
+ * zone named by the "timezone" mapping parameter (EST by default).  The "zoneConversion"
+ * mapping parameter picks how it is converted to that zone, see {@link InstantUserType}.
+ * <p>
+ * 	By default the date part is the day the value is written, so equal times written on
+ * 	different days differ in the database.  Setting the "anchorDate" mapping parameter
+ * 	to a yyyy-MM-dd date (e.g. 1970-01-01) writes every value on that date instead,
+ * 	which needs no clock read and lets the column be compared and indexed as a time.
+ * 	Reading is the same either way.
+ * </p>
+ */
 public class TimestampTimeOfDayUserType extends TimeOfDayUserType{
-	private final DateTimeZone zone = DateTimeZone.forTimeZone(timeZone);
-	
-	public int[] sqlTypes() {
-		return TimeOfDayUserType.DB_FORMAT_DATETIME_TYPES;
+	public TimestampTimeOfDayUserType() {
+		super(TimeOfDayUserType.DB_FORMAT_DATETIME);
 	}
-	
-	public Object nullSafeGet(ResultSet resultSet, String[] names, Object arg2) throws HibernateException, SQLException {
-		final Calendar calendar = new GregorianCalendar(timeZone);
-		final Timestamp t = (Timestamp) resultSet.getTimestamp(names[0], calendar);
-		if (t == null) return null;
-
-		return new DateTime(t.getTime(), zone).toTimeOfDay();
-	}
-	
-	public void nullSafeSet(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException 
-		{
-		if (value == null){
-			statement.setTimestamp(index, null);
-		}else {
-			final TimeOfDay tmd = (TimeOfDay)value;
-			final long millisInZone = tmd.toDateTimeToday(zone).getMillis();
-			final Timestamp timestamp = new Timestamp(millisInZone);
-			
-			statement.setTimestamp(index, timestamp, new GregorianCalendar(timeZone));	
-		}
-	}
-
 }
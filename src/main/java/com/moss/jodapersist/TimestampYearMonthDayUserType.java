@@ -42,7 +42,4 @@ public class TimestampYearMonthDayUserType extends YearMonthDayUserType {
 	public TimestampYearMonthDayUserType() {
 		super(YearMonthDayUserType.DB_FORMAT_DATETIME);
 	}
-	public int getNullType() {
-		return YearMonthDayUserType.DB_FORMAT_DATETIME_TYPES[0];
-	}
 }
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.joda.time.YearMonthDay;
+
+/**
+ * A bounded, lock-free intern table of YearMonthDay instances keyed by their packed
+ * yyyymmdd value.  Each key maps to exactly one slot; a miss simply replaces whatever
+ * the slot held, so the table never grows past its initial size and readers never
+ * block.  Safe to share between threads since YearMonthDay is immutable.
+ */
+final class YearMonthDayCache {
+	
+	/**
+	 * Allocates a new instance per value; used when no cacheSize is configured.
+	 */
+	static final YearMonthDayCache NONE = new YearMonthDayCache();
+	
+	private static final int MAX_SIZE = 1 << 20;
+	
+	private final AtomicReferenceArray<YearMonthDay> slots;
+	private final int shift;
+	
+	private YearMonthDayCache() {
+		slots = null;
+		shift = 0;
+	}
+	
+	/**
+	 * @param size the number of slots, rounded up to a power of two
+	 */
+	private YearMonthDayCache(int size) {
+		int bits = 32 - Integer.numberOfLeadingZeros(size - 1);
+		slots = new AtomicReferenceArray<YearMonthDay>(1 << bits);
+		shift = 32 - bits;
+	}
+	
+	/**
+	 * @return {@link #NONE} when size is not positive
+	 */
+	static YearMonthDayCache withSize(int size) {
+		if (size <= 0) {
+			return NONE;
+		}
+		return new YearMonthDayCache(Math.min(size, MAX_SIZE));
+	}
+	
+	/**
+	 * @param yearMonthDay a packed yyyymmdd value
+	 */
+	YearMonthDay get(int yearMonthDay) {
+		if (slots == null) {
+			return YearMonthDayCodec.fromInt(yearMonthDay);
+		}
+		// fibonacci hashing spreads consecutive dates across the table
+		int slot = shift == 32 ? 0 : (yearMonthDay * 0x9E3779B9) >>> shift;
+		
+		YearMonthDay cached = slots.get(slot);
+		if (cached != null && YearMonthDayCodec.toInt(cached) == yearMonthDay) {
+			return cached;
+		}
+		
+		YearMonthDay ymd = YearMonthDayCodec.fromInt(yearMonthDay);
+		slots.lazySet(slot, ymd);
+		return ymd;
+	}
+	
+	int size() {
+		return slots == null ? 0 : slots.length();
+	}
+}
@@ -0,0 +1,417 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.hibernate.HibernateException;
+import org.joda.time.Chronology;
+import org.joda.time.YearMonthDay;
+import org.joda.time.chrono.ISOChronology;
+
+import com.moss.hibernate.util.ColumnIndexes;
+
+/**
+ * Reads and writes a org.joda.time.YearMonthDay in one of the sqltypes supported by
+ * {@link YearMonthDayUserType}.
+ */
+abstract class YearMonthDayCodec extends SqlCodec {
+	
+	static final YearMonthDayCodec 
+		NUMERIC = new Numeric(),
+		INTEGER = new Int(),
+		EPOCH_DAY = new EpochDay(),
+		DATE = new SqlDate(),
+		STRING = new Str();
+	
+	/**
+	 * Stands in until a sqltype has been specified.
+	 */
+	static final YearMonthDayCodec UNSPECIFIED = new Unspecified();
+	
+	private static final long 
+		MILLIS_PER_HOUR = 60 * 60 * 1000L,
+		MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+	
+	YearMonthDayCodec(String sqltype, int sqlType) {
+		super(sqltype, sqlType);
+	}
+	
+	/**
+	 * Reads the column exactly once.
+	 * 
+	 * @param cache supplies the returned instance
+	 * @return the YearMonthDay stored in the column, or null
+	 */
+	final YearMonthDay get(ResultSet resultSet, String column, YearMonthDayCache cache) throws SQLException {
+		int yearMonthDay = getPacked(resultSet, ColumnIndexes.indexOf(resultSet, column));
+		if (resultSet.wasNull()) {
+			return null;
+		}
+		return cache.get(yearMonthDay);
+	}
+	
+	void set(PreparedStatement statement, int index, YearMonthDay ymd) throws SQLException {
+		setPacked(statement, index, toInt(ymd));
+	}
+	
+	/**
+	 * @return the stored date as a packed yyyymmdd value, or 0 if the column is null 
+	 * 	(check wasNull())
+	 */
+	abstract int getPacked(ResultSet resultSet, int column) throws SQLException;
+	
+	/**
+	 * @param yearMonthDay a packed yyyymmdd value
+	 */
+	abstract void setPacked(PreparedStatement statement, int index, int yearMonthDay) throws SQLException;
+	
+	/**
+	 * @param noon whether datetime columns hold noon rather than midnight, see 
+	 * 	{@link YearMonthDayUserType#TIME_OFFSET_NOON}
+	 * @param zone the zone whose wall-clock time datetime columns hold
+	 */
+	static YearMonthDayCodec forSqltype(String sqltype, boolean noon, StorageZone zone) throws HibernateException {
+		if (sqltype == null) {
+			return UNSPECIFIED;
+		}
+		else if (sqltype.equals(YearMonthDayUserType.DB_FORMAT_NUMERIC)) {
+			return NUMERIC;
+		}
+		else if (sqltype.equals(YearMonthDayUserType.DB_FORMAT_INTEGER)) {
+			return INTEGER;
+		}
+		else if (sqltype.equals(YearMonthDayUserType.DB_FORMAT_EPOCH_DAY)) {
+			return EPOCH_DAY;
+		}
+		else if (sqltype.equals(YearMonthDayUserType.DB_FORMAT_DATE)) {
+			return DATE;
+		}
+		else if (sqltype.equals(YearMonthDayUserType.DB_FORMAT_DATETIME)) {
+			return new Datetime(noon, zone);
+		}
+		else if (sqltype.equals(YearMonthDayUserType.DB_FORMAT_STRING)) {
+			return STRING;
+		}
+		else throw new HibernateException("Unsupported sqltype for " + YearMonthDay.class.getName() + ": " + sqltype);
+	}
+	
+	static long toLong(YearMonthDay ymd) {
+		long l = 0;
+		
+		l += ymd.getYear() * 10000;
+		l += ymd.getMonthOfYear() * 100;
+		l += ymd.getDayOfMonth();
+		
+		return l;
+	}
+	
+	static int toInt(YearMonthDay ymd) {
+		return ymd.getYear() * 10000 + ymd.getMonthOfYear() * 100 + ymd.getDayOfMonth();
+	}
+	
+	static YearMonthDay fromInt(int yearMonthDay) {
+		int year = yearMonthDay / 10000 ;
+		int month = yearMonthDay / 100 % 100; 
+		int day = yearMonthDay % 100;
+
+		return new YearMonthDay(year, month, day);
+	}
+	
+	/**
+	 * @param yearMonthDay a packed yyyymmdd value in the proleptic Gregorian calendar, as
+	 * 	used by the ISO chronology
+	 * @return the number of days since 1970-01-01
+	 */
+	static int toEpochDay(int yearMonthDay) {
+		int year = yearMonthDay / 10000;
+		int month = yearMonthDay / 100 % 100;
+		int day = yearMonthDay % 100;
+		
+		// count years from March so the leap day falls at the end of the year
+		if (month <= 2) {
+			year--;
+		}
+		int era = (year >= 0 ? year : year - 399) / 400;
+		int yearOfEra = year - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+	
+	/**
+	 * The inverse of {@link #toEpochDay(int)}.
+	 */
+	static int fromEpochDay(int epochDay) {
+		int days = epochDay + 719468;
+		int era = (days >= 0 ? days : days - 146096) / 146097;
+		int dayOfEra = days - era * 146097;
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int marchMonth = (5 * dayOfYear + 2) / 153;
+		
+		int day = dayOfYear - (153 * marchMonth + 2) / 5 + 1;
+		int month = marchMonth < 10 ? marchMonth + 3 : marchMonth - 9;
+		int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		return year * 10000 + month * 100 + day;
+	}
+	
+	private static final class Numeric extends YearMonthDayCodec {
+		Numeric() {
+			super(YearMonthDayUserType.DB_FORMAT_NUMERIC, Types.NUMERIC);
+		}
+		
+		int getPacked(ResultSet resultSet, int column) throws SQLException {
+			return (int)resultSet.getLong(column);
+		}
+		
+		void setPacked(PreparedStatement statement, int index, int yearMonthDay) throws SQLException {
+			statement.setLong(index, yearMonthDay);
+		}
+	}
+	
+	private static final class Int extends YearMonthDayCodec {
+		Int() {
+			super(YearMonthDayUserType.DB_FORMAT_INTEGER, Types.INTEGER);
+		}
+		
+		int getPacked(ResultSet resultSet, int column) throws SQLException {
+			return resultSet.getInt(column);
+		}
+		
+		void setPacked(PreparedStatement statement, int index, int yearMonthDay) throws SQLException {
+			statement.setInt(index, yearMonthDay);
+		}
+	}
+	
+	/**
+	 * Days since 1970-01-01 in an INTEGER column; no zone is involved.
+	 */
+	private static final class EpochDay extends YearMonthDayCodec {
+		EpochDay() {
+			super(YearMonthDayUserType.DB_FORMAT_EPOCH_DAY, Types.INTEGER);
+		}
+		
+		int getPacked(ResultSet resultSet, int column) throws SQLException {
+			int epochDay = resultSet.getInt(column);
+			if (resultSet.wasNull()) {
+				return 0;
+			}
+			return fromEpochDay(epochDay);
+		}
+		
+		void setPacked(PreparedStatement statement, int index, int yearMonthDay) throws SQLException {
+			statement.setInt(index, toEpochDay(yearMonthDay));
+		}
+	}
+	
+	/**
+	 * A DATE column.  Drivers take a java.sql.Date to mean the date it falls on in the 
+	 * JVM's zone, so values are bound as that zone's midnight.
+	 */
+	private static final class SqlDate extends YearMonthDayCodec {
+		SqlDate() {
+			super(YearMonthDayUserType.DB_FORMAT_DATE, Types.DATE);
+		}
+		
+		int getPacked(ResultSet resultSet, int column) throws SQLException {
+			Date date = resultSet.getDate(column);
+			if (date == null) {
+				return 0;
+			}
+			long localMillis = ZoneOffsetTable.jvm().toLocal(date.getTime());
+			long localMidnight = localMillis - TimeOfDayCodec.floorMod(localMillis, MILLIS_PER_DAY);
+			return fromEpochDay((int)(localMidnight / MILLIS_PER_DAY));
+		}
+		
+		void setPacked(PreparedStatement statement, int index, int yearMonthDay) throws SQLException {
+			long localMidnight = toEpochDay(yearMonthDay) * MILLIS_PER_DAY;
+			statement.setDate(index, new Date(ZoneOffsetTable.jvm().toUtc(localMidnight)));
+		}
+	}
+	
+	private static final class Datetime extends YearMonthDayCodec {
+		private final long timeOffset;
+		private final StorageZone zone;
+		
+		Datetime(boolean noon, StorageZone zone) {
+			super(YearMonthDayUserType.DB_FORMAT_DATETIME, Types.TIMESTAMP);
+			this.timeOffset = noon ? 12 * MILLIS_PER_HOUR : 0;
+			this.zone = zone;
+		}
+		
+		int getPacked(ResultSet resultSet, int column) throws SQLException {
+			long millis = zone.getTimestamp(resultSet, column);
+			if (resultSet.wasNull()) {
+				return 0;
+			}
+			// same fields new YearMonthDay(millis) would pick, without the intermediate instance
+			Chronology chronology = ISOChronology.getInstance();
+			return chronology.year().get(millis) * 10000 
+				+ chronology.monthOfYear().get(millis) * 100 
+				+ chronology.dayOfMonth().get(millis);
+		}
+		
+		void set(PreparedStatement statement, int index, YearMonthDay ymd) throws SQLException {
+			long millis = ymd.toDateTimeAtMidnight().getMillis() + timeOffset;
+			zone.setTimestamp(statement, index, millis);
+		}
+		
+		void setPacked(PreparedStatement statement, int index, int yearMonthDay) throws SQLException {
+			set(statement, index, fromInt(yearMonthDay));
+		}
+	}
+	
+	private static final class Str extends YearMonthDayCodec {
+		private static final int LENGTH = "yyyy-MM-dd".length();
+		
+		private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<char[]>() {
+			protected char[] initialValue() {
+				return new char[LENGTH];
+			}
+		};
+		
+		Str() {
+			super(YearMonthDayUserType.DB_FORMAT_STRING, Types.VARCHAR);
+		}
+		
+		int getPacked(ResultSet resultSet, int column) throws SQLException {
+			String timeStr = resultSet.getString(column);
+			if (timeStr == null) {
+				return 0;
+			}
+			return parse(timeStr);
+		}
+		
+		void set(PreparedStatement statement, int index, YearMonthDay ymd) throws SQLException {
+			if (ymd.getYear() < 0) {
+				// doesn't pack
+				statement.setString(index, ymd.toString());
+				return;
+			}
+			super.set(statement, index, ymd);
+		}
+		
+		void setPacked(PreparedStatement statement, int index, int yearMonthDay) throws SQLException {
+			int year = yearMonthDay / 10000;
+			if (year < 0 || year > 9999) {
+				statement.setString(index, fromInt(yearMonthDay).toString());
+				return;
+			}
+			char[] buffer = BUFFER.get();
+			format(year, yearMonthDay / 100 % 100, yearMonthDay % 100, buffer);
+			statement.setString(index, new String(buffer, 0, LENGTH));
+		}
+		
+		/**
+		 * Parses yyyy-MM-dd, also accepting the unpadded months and days (and years of up
+		 * to five digits) that the previous split-based parser did.
+		 * 
+		 * @return the packed yyyymmdd value
+		 */
+		static int parse(String s) throws HibernateException {
+			int length = s.length();
+			int year = 0, month = 0, day = 0;
+			int field = 0, digits = 0;
+			
+			for (int i = 0; i < length; i++) {
+				char c = s.charAt(i);
+				if (c >= '0' && c <= '9') {
+					if (++digits > (field == 0 ? 5 : 2)) {
+						throw invalid(s);
+					}
+					int digit = c - '0';
+					switch (field) {
+						case 0: year = year * 10 + digit; break;
+						case 1: month = month * 10 + digit; break;
+						default: day = day * 10 + digit;
+					}
+				}
+				else if (c == '-' && digits > 0 && field < 2) {
+					field++;
+					digits = 0;
+				}
+				else {
+					throw invalid(s);
+				}
+			}
+			if (field != 2 || digits == 0) {
+				throw invalid(s);
+			}
+			return year * 10000 + month * 100 + day;
+		}
+		
+		/**
+		 * Writes yyyy-MM-dd into the first ten chars of the buffer.
+		 */
+		static void format(int year, int month, int day, char[] buffer) {
+			buffer[0] = (char)('0' + year / 1000);
+			buffer[1] = (char)('0' + year / 100 % 10);
+			buffer[2] = (char)('0' + year / 10 % 10);
+			buffer[3] = (char)('0' + year % 10);
+			buffer[4] = '-';
+			buffer[5] = (char)('0' + month / 10);
+			buffer[6] = (char)('0' + month % 10);
+			buffer[7] = '-';
+			buffer[8] = (char)('0' + day / 10);
+			buffer[9] = (char)('0' + day % 10);
+		}
+		
+		private static HibernateException invalid(String s) {
+			return new HibernateException("Invalid format (should be yyyy-MM-dd) \"" + s + "\"");
+		}
+	}
+	
+	private static final class Unspecified extends YearMonthDayCodec {
+		Unspecified() {
+			super(null, Types.NULL);
+		}
+		
+		int getPacked(ResultSet resultSet, int column) {
+			throw new Error("No valid sqlType specified!");
+		}
+		
+		void setPacked(PreparedStatement statement, int index, int yearMonthDay) {
+			throw new Error("No valid sqlType specified!");
+		}
+	}
+}
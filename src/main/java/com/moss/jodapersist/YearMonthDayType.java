@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.hibernate.EntityMode;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.type.ImmutableType;
+import org.hibernate.usertype.ParameterizedType;
+import org.joda.time.YearMonthDay;
+
+/**
+ * A Hibernate type for org.joda.time.YearMonthDay, usable directly as a mapping's type so
+ * the property skips the CustomType wrapper {@link YearMonthDayUserType} needs.  Takes the
+ * same mapping parameters, including "sqltype", which has no default.
+ */
+public class YearMonthDayType extends ImmutableType implements ParameterizedType {
+	
+	private String sqltype;
+	
+	private String timeOffset = YearMonthDayUserType.TIME_OFFSET_NONE;
+	
+	private String timezone = StorageZone.DEFAULT_ID;
+	
+	private String zoneConversion = StorageZone.CONVERSION_CALENDAR;
+	
+	private int cacheSize = 0;
+	
+	/**
+	 * Set on the shared {@link JodaTypes} constants, which mustn't be reconfigured
+	 */
+	private boolean frozen;
+	
+	private transient YearMonthDayCodec codec;
+	
+	private transient YearMonthDayCache cache;
+	
+	public YearMonthDayType() {
+		this(null);
+	}
+	
+	/**
+	 * @param sqltype fixes the sqltype, which the mapping parameters then can't change
+	 */
+	YearMonthDayType(String sqltype) {
+		this.sqltype = sqltype;
+		resolveCodec();
+	}
+	
+	private void resolveCodec() {
+		codec = YearMonthDayCodec.forSqltype(sqltype, YearMonthDayUserType.TIME_OFFSET_NOON.equals(timeOffset), StorageZone.forID(timezone, zoneConversion));
+		cache = YearMonthDayCache.withSize(cacheSize);
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		resolveCodec();
+	}
+	
+	YearMonthDayCodec getCodec() {
+		return codec;
+	}
+	
+	YearMonthDayCache getCache() {
+		return cache;
+	}
+	
+	public Object get(ResultSet resultSet, String name) throws HibernateException, SQLException {
+		return codec.get(resultSet, name, cache);
+	}
+	
+	public void set(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException {
+		codec.set(statement, index, (YearMonthDay)value);
+	}
+	
+	/**
+	 * Compares the fields directly when both dates share a Chronology, rather than 
+	 * through YearMonthDay.equals, which also compares every field's type.
+	 */
+	public boolean isEqual(Object x, Object y) {
+		if (x == y) return true;
+		if (x == null || y == null) return false;
+		
+		YearMonthDay a = (YearMonthDay)x, b = (YearMonthDay)y;
+		if (a.getChronology() == b.getChronology()) {
+			return YearMonthDayCodec.toInt(a) == YearMonthDayCodec.toInt(b);
+		}
+		return a.equals(b);
+	}
+	
+	public int getHashCode(Object x, EntityMode entityMode) {
+		return YearMonthDayCodec.toInt((YearMonthDay)x);
+	}
+	
+	/**
+	 * @return the date as a packed yyyymmdd Integer, which the second-level cache holds
+	 * 	more compactly than the YearMonthDay and its Chronology
+	 */
+	public Serializable disassemble(Object value, SessionImplementor session, Object owner) throws HibernateException {
+		return value == null ? null : new Integer(YearMonthDayCodec.toInt((YearMonthDay)value));
+	}
+	
+	/**
+	 * Also takes the YearMonthDay itself, which is what entries cached before the packed
+	 * form were hold.
+	 */
+	public Object assemble(Serializable cached, SessionImplementor session, Object owner) throws HibernateException {
+		if (cached == null || cached instanceof YearMonthDay) {
+			return cached;
+		}
+		return cache.get(((Integer)cached).intValue());
+	}
+	
+	int[] sqlTypes() {
+		if (codec == YearMonthDayCodec.UNSPECIFIED) {
+			throw new Error("No valid sqlType specified!");
+		}
+		return codec.sqlTypes();
+	}
+	
+	public int sqlType() {
+		return sqlTypes()[0];
+	}
+	
+	public String toString(Object value) throws HibernateException {
+		return value.toString();
+	}
+	
+	public Object fromStringValue(String xml) throws HibernateException {
+		return new YearMonthDay(xml);
+	}
+	
+	public Class getReturnedClass() {
+		return YearMonthDay.class;
+	}
+	
+	public String getName() {
+		return "yearmonthday";
+	}
+	
+	/**
+	 * Makes setParameterValues throw, for the shared {@link JodaTypes} constants
+	 */
+	YearMonthDayType freeze() {
+		frozen = true;
+		return this;
+	}
+	
+	public void setParameterValues(Properties p) {
+		if (frozen) {
+			throw new UnsupportedOperationException("The shared " + getName() + " types in JodaTypes can't be reconfigured");
+		}
+		if (p != null) {
+			if(sqltype==null) sqltype = p.getProperty("sqltype", null);
+			timeOffset = p.getProperty("timeOffset", YearMonthDayUserType.TIME_OFFSET_NONE);
+			timezone = p.getProperty("timezone", StorageZone.DEFAULT_ID);
+			zoneConversion = p.getProperty("zoneConversion", StorageZone.CONVERSION_CALENDAR);
+			cacheSize = parseCacheSize(p.getProperty("cacheSize"));
+			resolveCodec();
+		}
+	}
+	
+	private static int parseCacheSize(String value) throws HibernateException {
+		if (value == null) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		}
+		catch (NumberFormatException e) {
+			throw new HibernateException("Invalid cacheSize for " + YearMonthDay.class.getName() + ": " + value);
+		}
+	}
+}
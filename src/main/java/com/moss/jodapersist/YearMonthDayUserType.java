@@ -41,21 +41,13 @@ import java.io.Serializable;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Timestamp;
 import java.sql.Types;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.Properties;
-import java.util.TimeZone;
 
 import org.hibernate.HibernateException;
 import org.hibernate.usertype.EnhancedUserType;
 import org.hibernate.usertype.ParameterizedType;
 import org.hibernate.usertype.UserType;
-import org.joda.time.DateTimeZone;
-import org.joda.time.Duration;
-import org.joda.time.Instant;
-import org.joda.time.Period;
 import org.joda.time.YearMonthDay;
 
 /**
@@ -70,40 +62,63 @@ import org.joda.time.YearMonthDay;
  * 	Persists a org.joda.time.YearMonthDay as one of a variety of sql types, depending on
  * 	settings specified in a property's mapping parameters.
  * </p>
+ * <p>
+ * 	Timestamp columns hold the wall-clock time in the zone named by the "timezone"
+ * 	mapping parameter (America/New_York by default), converted as set by the 
+ * 	"zoneConversion" mapping parameter, see {@link InstantUserType}.
+ * </p>
+ * <p>
+ * 	Setting the "cacheSize" mapping parameter to a positive number of entries makes
+ * 	hydration return shared instances from a bounded intern table instead of a new
+ * 	YearMonthDay per row.  Worthwhile when relatively few distinct dates are spread
+ * 	across many rows.
+ * </p>
+ * <p>
+ * 	Reads and writes through a {@link YearMonthDayType}, which can also be mapped directly.
+ * </p>
  * @see com.moss.jodapersist.TimestampYearMonthDayUserType
  * @see com.moss.jodapersist.NumericYearMonthDayUserType
+ * @see com.moss.jodapersist.IntegerYearMonthDayUserType
+ * @see com.moss.jodapersist.EpochDayYearMonthDayUserType
+ * @see com.moss.jodapersist.DateYearMonthDayUserType
  * @see com.moss.jodapersist.StringYearMonthDayUserType
  */
 public abstract class YearMonthDayUserType implements EnhancedUserType, UserType, ParameterizedType, Serializable {
-	private Calendar storageCalendar = new GregorianCalendar(TimeZone.getTimeZone("America/New_York"));
-	
 	public static final String 
 		DB_FORMAT_DATETIME = "datetime", 
 		DB_FORMAT_NUMERIC = "numeric",
+		DB_FORMAT_INTEGER = "integer",
+		DB_FORMAT_EPOCH_DAY = "epochday",
+		DB_FORMAT_DATE = "date",
 		DB_FORMAT_STRING = "string";
 	
 	protected static final int[] 
 	    DB_FORMAT_NUMERIC_TYPES = new int[] { Types.NUMERIC },
+	    DB_FORMAT_INTEGER_TYPES = new int[] { Types.INTEGER },
 	    DB_FORMAT_DATETIME_TYPES = new int[] { Types.TIMESTAMP },
 	    DB_FORMAT_STRING_TYPES = new int[] { Types.VARCHAR };
 	
-	private String sqltype = null;
-	
 	public static final String
 		TIME_OFFSET_NONE = "none",
 		TIME_OFFSET_NOON = "noon";
 	
-	private String timeOffset = TIME_OFFSET_NONE;
+	private final YearMonthDayType type;
 	
-	public YearMonthDayUserType(){}
+	public YearMonthDayUserType(){
+		type = new YearMonthDayType();
+	}
 	
 	/**
 	 * For subclasses which are specific to a particular sql type
 	 */
 	YearMonthDayUserType(String sqltype) {
-		this.sqltype = sqltype;
+		type = new YearMonthDayType(sqltype);
 	}
 
+	YearMonthDayCodec getCodec() {
+		return type.getCodec();
+	}
+	
 	public Object fromXMLString(String xmlValue) {
 		// TODO Auto-generated method stub
 		return null;
@@ -120,16 +135,7 @@ public abstract class YearMonthDayUserType implements EnhancedUserType, UserType
 	}
 
 	public int[] sqlTypes() { 
-		if (sqltype.equals(DB_FORMAT_NUMERIC)) {
-			return DB_FORMAT_NUMERIC_TYPES;
-		}
-		else if (sqltype.equals(DB_FORMAT_DATETIME)) { 
-			return DB_FORMAT_DATETIME_TYPES;
-		}
-		else if (sqltype.equals(DB_FORMAT_STRING)) {
-			return DB_FORMAT_STRING_TYPES;
-		}
-		else throw new Error("No valid sqlType specified!");
+		return type.sqlTypes();
 	}
 	
 	public boolean isMutable() {
@@ -137,7 +143,7 @@ public abstract class YearMonthDayUserType implements EnhancedUserType, UserType
 	}
 
 	public Object assemble(Serializable arg0, Object arg1) throws HibernateException {
-		return arg0;
+		return type.assemble(arg0, null, arg1);
 	}
 
 	public Object deepCopy(Object arg0) throws HibernateException {
@@ -146,76 +152,28 @@ public abstract class YearMonthDayUserType implements EnhancedUserType, UserType
 	}
 
 	public Serializable disassemble(Object arg0) throws HibernateException {
-		return (Serializable)arg0;
+		return type.disassemble(arg0, null, null);
 	}
 
 	public boolean equals(Object arg0, Object arg1) throws HibernateException {
-		if(arg0==null && arg1==null) return true;
-		if(arg0==null || arg1==null) return false;
-		return arg0.equals(arg1);
+		return type.isEqual(arg0, arg1);
 	}
 
 	public int hashCode(Object arg0) throws HibernateException {
-		return arg0.hashCode();
+		return type.getHashCode(arg0, null);
 	}
 
 	public Object nullSafeGet(ResultSet resultSet, String[] names, Object arg2) throws HibernateException, SQLException {
-		Object o = resultSet.getObject(names[0]);
-		
-		if (o == null) {
-			return null;
-		}
-		else if (sqltype.equals(DB_FORMAT_NUMERIC)) {
-			long ymd = resultSet.getLong(names[0]);
-			return longToYearMonthDay(ymd);
-		}
-		else if (sqltype.equals(DB_FORMAT_DATETIME)) {
-			Timestamp timestamp = resultSet.getTimestamp(names[0], storageCalendar);
-			YearMonthDay ymd = new YearMonthDay(timestamp.getTime());
-			return ymd;
-		}
-		else if (sqltype.equals(this.DB_FORMAT_STRING)) {
-			String timeStr = resultSet.getString(names[0]);
-			String[] parts = timeStr.split("-");
-			
-			YearMonthDay ymd = new YearMonthDay(
-				Integer.parseInt(parts[0]),
-				Integer.parseInt(parts[1]),
-				Integer.parseInt(parts[2])
-			);
-			
-			return ymd;
-		}
-		else throw new Error("No valid sqlType specified!");
+		return type.get(resultSet, names[0]);
 	}
 
 	public void nullSafeSet(PreparedStatement statement, Object value, int index) throws HibernateException, SQLException {
-		YearMonthDay ymd = (YearMonthDay)value;
-		
-		if (ymd != null) {
-			if (sqltype.equals(this.DB_FORMAT_NUMERIC)) {
-				statement.setLong(index, yearMonthDayToLong(ymd));
-			}
-			else if (sqltype.equals(this.DB_FORMAT_DATETIME)) {
-				Instant instant = ymd.toDateTimeAtMidnight().toInstant();
-				
-				if (timeOffset.equals(TIME_OFFSET_NOON)) {
-					instant = instant.toDateTime(DateTimeZone.UTC).plusHours(12).toInstant();
-				}
-			
-				statement.setTimestamp(index, new Timestamp(instant.getMillis()), storageCalendar);	
-			}
-			else if (sqltype.equals(this.DB_FORMAT_STRING)) {
-				statement.setString(index, ymd.toString());
-			}
-			else throw new Error("No valid sqlType specified!");
-		}
-		else {
-			statement.setNull(index, getNullType());
-		}
+		type.nullSafeSet(statement, value, index);
 	}
 	
-	public abstract int getNullType();
+	public int getNullType() {
+		return type.getCodec().getNullType();
+	}
 	
 	public Object replace(Object original, Object target, Object owner) throws HibernateException {
 		return original;
@@ -226,29 +184,14 @@ public abstract class YearMonthDayUserType implements EnhancedUserType, UserType
 	}
 	
 	public long yearMonthDayToLong(YearMonthDay ymd) throws HibernateException {
-		long l = 0;
-		
-		l += ymd.getYear() * 10000;
-		l += ymd.getMonthOfYear() * 100;
-		l += ymd.getDayOfMonth();
-		
-		return l;
+		return YearMonthDayCodec.toLong(ymd);
 	}
 	
 	public YearMonthDay longToYearMonthDay(long yearMonthDay) throws HibernateException {
-		
-		int year = (int)yearMonthDay / 10000 ;
-		int month = (int)yearMonthDay / 100 % 100; 
-		int day = (int)yearMonthDay % 100;
-
-		return new YearMonthDay(year, month, day);
+		return type.getCache().get((int)yearMonthDay);
 	}
 	
 	public void setParameterValues(Properties p) {
-		if (p != null) {
-			if(sqltype==null) sqltype = p.getProperty("sqltype", null);
-			timeOffset = p.getProperty("timeOffset", TIME_OFFSET_NONE);
-		}
+		type.setParameterValues(p);
 	}
-	
 }
@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package com.moss.jodapersist;
+
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * A precomputed table of the offset transitions of a java.util.TimeZone between 1900
+ * and 2100, for converting between UTC and wall-clock millis without a Calendar.  
+ * Instances are immutable, and so safe to share between threads.
+ * <p>
+ * The table is built from java.util.TimeZone rather than joda's DateTimeZone so that it
+ * agrees with the Calendar arithmetic JDBC drivers do.
+ * </p>
+ */
+final class ZoneOffsetTable {
+	
+	private static final long
+		TABLE_START = -2208988800000L, // 1900-01-01T00:00:00Z
+		TABLE_END = 4102444800000L, // 2100-01-01T00:00:00Z
+		SCAN_STEP = 12 * 60 * 60 * 1000L;
+	
+	private final TimeZone zone;
+	
+	/**
+	 * transitions[i] is the UTC instant at which offsets[i] takes effect, 
+	 * localTransitions[i] is the same moment in wall-clock time.
+	 */
+	private final long[] transitions, localTransitions;
+	private final int[] offsets;
+	private final boolean fixed;
+	
+	ZoneOffsetTable(TimeZone zone) {
+		this.zone = (TimeZone)zone.clone();
+		
+		List<long[]> found = new ArrayList<long[]>();
+		int offset = zone.getOffset(TABLE_START);
+		found.add(new long[] { Long.MIN_VALUE, offset });
+		
+		for (long t = TABLE_START; t < TABLE_END; t += SCAN_STEP) {
+			long next = Math.min(t + SCAN_STEP, TABLE_END);
+			if (zone.getOffset(next) != offset) {
+				long transition = firstChange(zone, t, next, offset);
+				offset = zone.getOffset(transition);
+				found.add(new long[] { transition, offset });
+				t = transition - SCAN_STEP;
+			}
+		}
+		
+		transitions = new long[found.size()];
+		localTransitions = new long[found.size()];
+		offsets = new int[found.size()];
+		for (int i = 0; i < transitions.length; i++) {
+			long[] entry = found.get(i);
+			transitions[i] = entry[0];
+			offsets[i] = (int)entry[1];
+			localTransitions[i] = i == 0 ? Long.MIN_VALUE : entry[0] + entry[1];
+		}
+		
+		fixed = transitions.length == 1 && !zone.useDaylightTime() && zone.getOffset(TABLE_END) == offsets[0];
+	}
+	
+	/**
+	 * @return the first instant in (from, to] at which the offset differs from the 
+	 * 	given one
+	 */
+	private static long firstChange(TimeZone zone, long from, long to, int offset) {
+		while (to - from > 1) {
+			long mid = from + (to - from) / 2;
+			if (zone.getOffset(mid) == offset) {
+				from = mid;
+			}
+			else {
+				to = mid;
+			}
+		}
+		return to;
+	}
+	
+	String getID() {
+		return zone.getID();
+	}
+	
+	/**
+	 * @return true if the zone has the same offset at every instant
+	 */
+	boolean isFixed() {
+		return fixed;
+	}
+	
+	boolean hasSameRules(ZoneOffsetTable other) {
+		return zone.hasSameRules(other.zone);
+	}
+	
+	int getOffset(long utcMillis) {
+		if (fixed) {
+			return offsets[0];
+		}
+		if (utcMillis >= TABLE_END) {
+			return zone.getOffset(utcMillis);
+		}
+		return offsets[floor(transitions, utcMillis)];
+	}
+	
+	long toLocal(long utcMillis) {
+		return utcMillis + getOffset(utcMillis);
+	}
+	
+	/**
+	 * A lenient Calendar reads a wall-clock time skipped by a forward transition with the
+	 * offset from before the transition, which lands it just after the transition, where 
+	 * it is indistinguishable from a genuine wall-clock time an offset-change later.
+	 * 
+	 * @return true if the instant is within that window after a forward transition
+	 */
+	boolean followsGap(long utcMillis) {
+		if (fixed || utcMillis >= TABLE_END) {
+			return false;
+		}
+		int i = floor(transitions, utcMillis);
+		if (i == 0) {
+			return false;
+		}
+		int gap = offsets[i] - offsets[i - 1];
+		return gap > 0 && utcMillis - transitions[i] < gap;
+	}
+	
+	/**
+	 * Resolves wall-clock millis the way a lenient GregorianCalendar does: a wall time 
+	 * skipped by a transition is read with the offset from before the transition, and a 
+	 * wall time that occurs twice is read with the offset from after it.
+	 */
+	long toUtc(long localMillis) {
+		if (fixed) {
+			return localMillis - offsets[0];
+		}
+		if (localMillis >= TABLE_END) {
+			GregorianCalendar calendar = new GregorianCalendar(zone);
+			GregorianCalendar utc = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+			utc.setTimeInMillis(localMillis);
+			calendar.clear();
+			calendar.set(utc.get(GregorianCalendar.YEAR), utc.get(GregorianCalendar.MONTH), utc.get(GregorianCalendar.DAY_OF_MONTH), 
+					utc.get(GregorianCalendar.HOUR_OF_DAY), utc.get(GregorianCalendar.MINUTE), utc.get(GregorianCalendar.SECOND));
+			calendar.set(GregorianCalendar.MILLISECOND, utc.get(GregorianCalendar.MILLISECOND));
+			return calendar.getTimeInMillis();
+		}
+		return localMillis - offsets[floor(localTransitions, localMillis)];
+	}
+	
+	/**
+	 * @return the index of the last element of the sorted array which is &lt;= key
+	 */
+	private static int floor(long[] sorted, long key) {
+		int low = 0;
+		int high = sorted.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (sorted[mid] <= key) {
+				low = mid;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * The zone drivers use to interpret java.sql date/time values bound or read without
+	 * a Calendar.  It is captured once, so changing the default TimeZone at runtime is
+	 * not supported.
+	 */
+	static ZoneOffsetTable jvm() {
+		return Jvm.TABLE;
+	}
+	
+	private static final class Jvm {
+		static final ZoneOffsetTable TABLE = new ZoneOffsetTable(TimeZone.getDefault());
+	}
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import junit.framework.TestCase;
+
+import org.hibernate.usertype.UserType;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.joda.time.YearMonthDay;
+
+import com.moss.jodapersist.BatchBinder;
+import com.moss.jodapersist.DurationUserType;
+import com.moss.jodapersist.NumericYearMonthDayUserType;
+import com.moss.jodapersist.StringYearMonthDayUserType;
+import com.moss.jodapersist.TimestampInstantUserType;
+import com.moss.jodapersist.TimestampYearMonthDayUserType;
+
+public class BatchBinderTest extends TestCase {
+	private static final int ROWS = 500;
+	
+	private Connection connection;
+	
+	protected void setUp() throws Exception {
+		Class.forName("org.hsqldb.jdbcDriver");
+		connection = DriverManager.getConnection("jdbc:hsqldb:mem:batchbinder", "sa", "");
+		Statement ddl = connection.createStatement();
+		ddl.execute("create table batched (id bigint, created timestamp, settled timestamp, posted varchar(10), due numeric(19,0), elapsed numeric(19,0))");
+		ddl.close();
+	}
+	
+	protected void tearDown() throws Exception {
+		Statement ddl = connection.createStatement();
+		ddl.execute("drop table batched");
+		ddl.close();
+		connection.close();
+	}
+	
+	/**
+	 * Batched rows must read back through the user types exactly as if each value had
+	 * gone through nullSafeSet.
+	 */
+	public void testRoundTrip() throws Exception {
+		TimestampInstantUserType instantType = new TimestampInstantUserType();
+		TimestampYearMonthDayUserType timestampDateType = new TimestampYearMonthDayUserType();
+		StringYearMonthDayUserType stringDateType = new StringYearMonthDayUserType();
+		NumericYearMonthDayUserType numericDateType = new NumericYearMonthDayUserType();
+		DurationUserType durationType = new DurationUserType();
+		
+		long[] ids = new long[ROWS];
+		long[] created = new long[ROWS];
+		YearMonthDay[] settled = new YearMonthDay[ROWS];
+		int[] posted = new int[ROWS];
+		YearMonthDay[] due = new YearMonthDay[ROWS];
+		Duration[] elapsed = new Duration[ROWS];
+		
+		YearMonthDay start = new YearMonthDay(2006, 1, 1);
+		for (int i = 0; i < ROWS; i++) {
+			YearMonthDay day = start.plusDays(i);
+			ids[i] = i;
+			created[i] = 1136073600000L + i * 3607001L;
+			settled[i] = i % 7 == 0 ? null : day;
+			posted[i] = (int)numericDateType.yearMonthDayToLong(day);
+			due[i] = i % 5 == 0 ? null : day.plusDays(30);
+			elapsed[i] = i % 3 == 0 ? null : new Duration(i * 1000L);
+		}
+		
+		PreparedStatement insert = connection.prepareStatement("insert into batched values (?, ?, ?, ?, ?, ?)");
+		BatchBinder batch = new BatchBinder(insert);
+		batch.bind(1, ids);
+		batch.bind(2, instantType, created);
+		batch.bind(3, timestampDateType, settled);
+		batch.bind(4, stringDateType, posted);
+		batch.bind(5, numericDateType, due);
+		batch.bind(6, durationType, elapsed);
+		
+		assertEquals(200, batch.addBatch(0, 200));
+		assertEquals(ROWS - 200, batch.addBatch(200, ROWS));
+		assertEquals(ROWS, insert.executeBatch().length);
+		insert.close();
+		
+		Statement select = connection.createStatement();
+		ResultSet rs = select.executeQuery("select * from batched order by id");
+		for (int i = 0; i < ROWS; i++) {
+			assertTrue(rs.next());
+			assertEquals(new Instant(created[i]), read(instantType, rs, "created"));
+			assertEquals(settled[i], read(timestampDateType, rs, "settled"));
+			assertEquals(numericDateType.longToYearMonthDay(posted[i]), read(stringDateType, rs, "posted"));
+			assertEquals(due[i], read(numericDateType, rs, "due"));
+			assertEquals(elapsed[i], read(durationType, rs, "elapsed"));
+		}
+		assertFalse(rs.next());
+		select.close();
+	}
+	
+	public void testShortColumn() throws Exception {
+		PreparedStatement insert = connection.prepareStatement("insert into batched (id, due) values (?, ?)");
+		BatchBinder batch = new BatchBinder(insert);
+		batch.bind(1, new long[] { 1, 2, 3 });
+		batch.bind(2, new NumericYearMonthDayUserType(), new int[] { 20060101 });
+		
+		try {
+			batch.addBatch(0, 3);
+			fail();
+		}
+		catch (IllegalArgumentException e) {}
+		insert.close();
+	}
+	
+	/**
+	 * Invalid ranges are rejected before any row is added to the batch.
+	 */
+	public void testInvalidRange() throws Exception {
+		StubPreparedStatement statement = new StubPreparedStatement(1);
+		BatchBinder batch = new BatchBinder(statement);
+		batch.bind(1, new long[] { 1, 2, 3 });
+		
+		int[][] ranges = { { -1, 2 }, { 2, 1 }, { 0, 4 } };
+		for (int i = 0; i < ranges.length; i++) {
+			try {
+				batch.addBatch(ranges[i][0], ranges[i][1]);
+				fail();
+			}
+			catch (IllegalArgumentException e) {}
+		}
+		assertEquals(0, statement.getBatchCount());
+		
+		assertEquals(0, batch.addBatch(3, 3));
+		assertEquals(0, statement.getBatchCount());
+	}
+	
+	private Object read(UserType type, ResultSet rs, String column) throws Exception {
+		return type.nullSafeGet(rs, new String[] { column }, null);
+	}
+}
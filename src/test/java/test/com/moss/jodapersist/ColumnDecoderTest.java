@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import junit.framework.TestCase;
+
+import org.hibernate.usertype.UserType;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.joda.time.TimeOfDay;
+import org.joda.time.YearMonthDay;
+
+import com.moss.jodapersist.AnsiTimeOfDay;
+import com.moss.jodapersist.ColumnDecoder;
+import com.moss.jodapersist.DurationUserType;
+import com.moss.jodapersist.InstantUserType;
+import com.moss.jodapersist.StringTimeOfDayUserType;
+import com.moss.jodapersist.StringYearMonthDayUserType;
+import com.moss.jodapersist.TimestampInstantUserType;
+import com.moss.jodapersist.TimestampTimeOfDayUserType;
+import com.moss.jodapersist.TimestampYearMonthDayUserType;
+
+public class ColumnDecoderTest extends TestCase {
+	private static final int ROWS = 300;
+	
+	private final UserType[] types = {
+		new InstantUserType(),
+		new TimestampInstantUserType(),
+		new TimestampYearMonthDayUserType(),
+		new StringYearMonthDayUserType(),
+		new TimestampTimeOfDayUserType(),
+		new StringTimeOfDayUserType(),
+		new AnsiTimeOfDay(),
+		new DurationUserType()
+	};
+	private final String[] columns = { "c0", "c1", "c2", "c3", "c4", "c5", "c6", "c7" };
+	
+	private Connection connection;
+	
+	protected void setUp() throws Exception {
+		Class.forName("org.hsqldb.jdbcDriver");
+		connection = DriverManager.getConnection("jdbc:hsqldb:mem:columndecoder", "sa", "");
+		Statement ddl = connection.createStatement();
+		ddl.execute("create table decoded (id integer, c0 numeric(19,0), c1 timestamp, c2 timestamp, c3 varchar(10), c4 timestamp, c5 varchar(5), c6 time, c7 numeric(19,0))");
+		ddl.close();
+		
+		PreparedStatement insert = connection.prepareStatement("insert into decoded values (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+		for (int row = 0; row < ROWS; row++) {
+			insert.setInt(1, row);
+			Object[] values = sampleRow(row);
+			for (int i = 0; i < types.length; i++) {
+				types[i].nullSafeSet(insert, values[i], i + 2);
+			}
+			insert.executeUpdate();
+		}
+		insert.close();
+	}
+	
+	protected void tearDown() throws Exception {
+		Statement ddl = connection.createStatement();
+		ddl.execute("drop table decoded");
+		ddl.close();
+		connection.close();
+	}
+	
+	private Object[] sampleRow(int row) {
+		if (row % 11 == 0) {
+			return new Object[types.length];
+		}
+		Instant instant = new Instant(1136073600000L + row * 86399999L);
+		YearMonthDay day = new YearMonthDay(2006, 1, 1).plusDays(row * 3);
+		return new Object[] {
+			instant,
+			instant,
+			day,
+			day,
+			new TimeOfDay(row % 24, row % 60, row % 7, row),
+			new TimeOfDay(row % 24, row % 60),
+			new TimeOfDay(row % 24, row % 60, row % 7),
+			new Duration(row * 1001L)
+		};
+	}
+	
+	/**
+	 * Every decoded number must match what nullSafeGet returns for the same row.
+	 */
+	public void testMatchesNullSafeGet() throws Exception {
+		ColumnDecoder decoder = new ColumnDecoder();
+		ColumnDecoder.Longs numericInstants = decoder.instants("c0", (InstantUserType)types[0]);
+		ColumnDecoder.Longs timestampInstants = decoder.instants("c1", (InstantUserType)types[1]);
+		ColumnDecoder.Ints timestampDates = decoder.yearMonthDays("c2", (TimestampYearMonthDayUserType)types[2]);
+		ColumnDecoder.Ints stringDates = decoder.yearMonthDays("c3", (StringYearMonthDayUserType)types[3]);
+		ColumnDecoder.Ints timestampTimes = decoder.timesOfDay("c4", (TimestampTimeOfDayUserType)types[4]);
+		ColumnDecoder.Ints stringTimes = decoder.timesOfDay("c5", (StringTimeOfDayUserType)types[5]);
+		ColumnDecoder.Ints ansiTimes = decoder.timesOfDay("c6", (AnsiTimeOfDay)types[6]);
+		ColumnDecoder.Longs durations = decoder.durations("c7", (DurationUserType)types[7]);
+		
+		Statement select = connection.createStatement();
+		assertEquals(ROWS, decoder.drain(select.executeQuery("select * from decoded order by id")));
+		
+		ResultSet rs = select.executeQuery("select * from decoded order by id");
+		for (int row = 0; row < ROWS; row++) {
+			assertTrue(rs.next());
+			Instant instant = (Instant)types[0].nullSafeGet(rs, new String[] { "c0" }, null);
+			assertDecoded(numericInstants, row, instant == null ? null : new Long(instant.getMillis()));
+			instant = (Instant)types[1].nullSafeGet(rs, new String[] { "c1" }, null);
+			assertDecoded(timestampInstants, row, instant == null ? null : new Long(instant.getMillis()));
+			assertDecoded(timestampDates, row, packed((YearMonthDay)types[2].nullSafeGet(rs, new String[] { "c2" }, null)));
+			assertDecoded(stringDates, row, packed((YearMonthDay)types[3].nullSafeGet(rs, new String[] { "c3" }, null)));
+			assertDecoded(timestampTimes, row, millisOfDay((TimeOfDay)types[4].nullSafeGet(rs, new String[] { "c4" }, null)));
+			assertDecoded(stringTimes, row, millisOfDay((TimeOfDay)types[5].nullSafeGet(rs, new String[] { "c5" }, null)));
+			assertDecoded(ansiTimes, row, millisOfDay((TimeOfDay)types[6].nullSafeGet(rs, new String[] { "c6" }, null)));
+			Duration duration = (Duration)types[7].nullSafeGet(rs, new String[] { "c7" }, null);
+			assertDecoded(durations, row, duration == null ? null : new Long(duration.getMillis()));
+		}
+		select.close();
+		
+		assertEquals(ROWS, durations.toArray().length);
+		assertTrue(durations.hasNulls());
+	}
+	
+	public void testChunks() throws Exception {
+		ColumnDecoder decoder = new ColumnDecoder();
+		ColumnDecoder.Longs durations = decoder.durations("c7", (DurationUserType)types[7]);
+		
+		Statement select = connection.createStatement();
+		ResultSet rs = select.executeQuery("select * from decoded order by id");
+		
+		int total = 0, chunk;
+		while ((chunk = decoder.drain(rs, 64)) > 0) {
+			assertEquals(chunk, durations.size());
+			assertTrue(chunk <= 64);
+			for (int i = 0; i < chunk; i++) {
+				int row = total + i;
+				assertEquals(row % 11 == 0, durations.isNull(i));
+				assertEquals(row % 11 == 0 ? 0 : row * 1001L, durations.get(i));
+			}
+			total += chunk;
+			decoder.clear();
+		}
+		assertEquals(ROWS, total);
+		select.close();
+	}
+	
+	private static Integer packed(YearMonthDay ymd) {
+		return ymd == null ? null : new Integer(ymd.getYear() * 10000 + ymd.getMonthOfYear() * 100 + ymd.getDayOfMonth());
+	}
+	
+	private static Integer millisOfDay(TimeOfDay tmd) {
+		return tmd == null ? null : new Integer(((tmd.getHourOfDay() * 60 + tmd.getMinuteOfHour()) * 60 + tmd.getSecondOfMinute()) * 1000 + tmd.getMillisOfSecond());
+	}
+	
+	private static void assertDecoded(ColumnDecoder.Longs column, int row, Long expected) {
+		assertEquals(expected == null, column.isNull(row));
+		assertEquals(expected == null ? 0 : expected.longValue(), column.get(row));
+	}
+	
+	private static void assertDecoded(ColumnDecoder.Ints column, int row, Integer expected) {
+		assertEquals(expected == null, column.isNull(row));
+		assertEquals(expected == null ? 0 : expected.intValue(), column.get(row));
+	}
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.sql.Types;
+
+import junit.framework.TestCase;
+
+import org.hibernate.HibernateException;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import com.moss.jodapersist.DateTimeUserType;
+
+public class DateTimeUserTypeTest extends TestCase {
+	private static final String[] NAMES = { "c0", "c1" };
+	private static final long MILLIS = 1199145600123L;
+	
+	private final DateTimeUserType userType = new DateTimeUserType();
+	
+	public void testRoundTrip() throws Exception {
+		String[] ids = { "UTC", "America/New_York", "Asia/Kolkata", "Australia/Lord_Howe", "Pacific/Apia", "US/Eastern" };
+		for (int i = 0; i < ids.length; i++) {
+			assertRoundTrip(new DateTime(MILLIS, DateTimeZone.forID(ids[i])));
+		}
+		assertRoundTrip(new DateTime(MILLIS, DateTimeZone.forOffsetHoursMinutes(5, 45)));
+		assertRoundTrip(new DateTime(MILLIS, DateTimeZone.forOffsetHoursMinutes(-9, 30)));
+		assertRoundTrip(new DateTime(MILLIS, DateTimeZone.forOffsetHours(23)));
+	}
+	
+	/**
+	 * Codes are stored, so they must never change.
+	 */
+	public void testStableCodes() throws Exception {
+		assertEquals(0, zoneCode(DateTimeZone.forID("Africa/Abidjan")));
+		assertEquals(162, zoneCode(DateTimeZone.forID("America/New_York")));
+		assertEquals(265, zoneCode(DateTimeZone.forID("Asia/Kolkata")));
+		assertEquals(562, zoneCode(DateTimeZone.UTC));
+		assertEquals(-30000 + 5 * 60 + 45, zoneCode(DateTimeZone.forOffsetHoursMinutes(5, 45)));
+		assertEquals(-30000 - 9 * 60 - 30, zoneCode(DateTimeZone.forOffsetHoursMinutes(-9, 30)));
+	}
+	
+	public void testSharedChronologies() throws Exception {
+		StubResultSet resultSet = new StubResultSet(NAMES, new Object[] { new Long(MILLIS), new Short((short)162) });
+		DateTime first = (DateTime)userType.nullSafeGet(resultSet, NAMES, null, null);
+		resultSet.setValue(1, new Long(MILLIS + 1));
+		DateTime second = (DateTime)userType.nullSafeGet(resultSet, NAMES, null, null);
+		
+		assertEquals(DateTimeZone.forID("America/New_York"), first.getZone());
+		assertSame(first.getChronology(), second.getChronology());
+	}
+	
+	public void testNulls() throws Exception {
+		StubPreparedStatement statement = new StubPreparedStatement(2);
+		userType.nullSafeSet(statement, null, 1, null);
+		assertTrue(statement.isNull(1));
+		assertTrue(statement.isNull(2));
+		assertEquals(Types.BIGINT, statement.getNullType(1));
+		assertEquals(Types.SMALLINT, statement.getNullType(2));
+		
+		assertNull(userType.nullSafeGet(new StubResultSet(NAMES, new Object[] { null, null }), NAMES, null, null));
+		
+		DateTime utc = (DateTime)userType.nullSafeGet(new StubResultSet(NAMES, new Object[] { new Long(MILLIS), null }), NAMES, null, null);
+		assertEquals(new DateTime(MILLIS, DateTimeZone.UTC), utc);
+	}
+	
+	public void testUncodedZone() throws Exception {
+		try {
+			userType.nullSafeSet(new StubPreparedStatement(2), new DateTime(MILLIS, DateTimeZone.forOffsetMillis(1234)), 1, null);
+			fail();
+		}
+		catch (HibernateException e) {
+		}
+	}
+	
+	public void testUnknownCode() throws Exception {
+		short[] codes = { 567, -1, -30000 - 24 * 60, -30000 + 24 * 60 };
+		for (int i = 0; i < codes.length; i++) {
+			try {
+				userType.nullSafeGet(new StubResultSet(NAMES, new Object[] { new Long(MILLIS), new Short(codes[i]) }), NAMES, null, null);
+				fail("" + codes[i]);
+			}
+			catch (HibernateException e) {
+			}
+		}
+	}
+	
+	public void testEquals() throws Exception {
+		DateTime dateTime = new DateTime(MILLIS, DateTimeZone.forID("Asia/Kolkata"));
+		
+		assertTrue(userType.equals(dateTime, new DateTime(MILLIS, DateTimeZone.forID("Asia/Kolkata"))));
+		assertEquals(userType.hashCode(dateTime), userType.hashCode(new DateTime(MILLIS, DateTimeZone.forID("Asia/Kolkata"))));
+		assertFalse(userType.equals(dateTime, new DateTime(MILLIS, DateTimeZone.UTC)));
+		assertFalse(userType.equals(dateTime, dateTime.plusMillis(1)));
+		assertFalse(userType.equals(dateTime, null));
+	}
+	
+	public void testDisassemble() throws Exception {
+		DateTime dateTime = new DateTime(MILLIS, DateTimeZone.forID("Australia/Lord_Howe"));
+		
+		assertEquals(dateTime, userType.assemble(userType.disassemble(dateTime, null), null, null));
+		assertNull(userType.disassemble(null, null));
+		assertNull(userType.assemble(null, null, null));
+	}
+	
+	private void assertRoundTrip(DateTime dateTime) throws Exception {
+		StubPreparedStatement statement = new StubPreparedStatement(2);
+		userType.nullSafeSet(statement, dateTime, 1, null);
+		
+		StubResultSet resultSet = new StubResultSet(NAMES, new Object[] { statement.getValue(1), statement.getValue(2) });
+		DateTime read = (DateTime)userType.nullSafeGet(resultSet, NAMES, null, null);
+		
+		assertEquals(dateTime.getMillis(), read.getMillis());
+		assertEquals(dateTime.getZone(), read.getZone());
+		assertEquals(dateTime, read);
+	}
+	
+	private int zoneCode(DateTimeZone zone) throws Exception {
+		StubPreparedStatement statement = new StubPreparedStatement(2);
+		userType.nullSafeSet(statement, new DateTime(MILLIS, zone), 1, null);
+		return ((Long)statement.getValue(2)).intValue();
+	}
+}
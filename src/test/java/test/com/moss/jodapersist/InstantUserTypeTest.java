@@ -37,12 +37,18 @@
  */
 package test.com.moss.jodapersist;
 
+import java.sql.Types;
+import java.util.Properties;
+
 import junit.framework.Assert;
 import junit.framework.TestCase;
 
+import org.hibernate.HibernateException;
 import org.joda.time.Instant;
 
+import com.moss.jodapersist.BigintInstantUserType;
 import com.moss.jodapersist.InstantUserType;
+import com.moss.jodapersist.TimestampInstantUserType;
 
 public class InstantUserTypeTest extends TestCase {
 
@@ -85,15 +91,66 @@ public class InstantUserTypeTest extends TestCase {
 	}
 	
 	/**
-	 * {@link Instant} implements Serializable, so the assemble/disassemble methods
-	 * of the InstantUserType should always return the same YearMonthDay variable
-	 * that is passed to them.
+	 * The second-level cache holds an {@link Instant} as its millis.
 	 */
 	public void testSerializable() {
 		InstantUserType t = new InstantUserType();
 		Instant i = new Instant();
 		
-		assertEquals(i, t.disassemble(i));
-		assertEquals(i, t.assemble(i, null));
+		assertEquals(new Long(i.getMillis()), t.disassemble(i));
+		assertEquals(i, t.assemble(t.disassemble(i), null));
+		assertNull(t.disassemble(null));
+		assertNull(t.assemble(null, null));
+		
+		// entries cached before the millis were
+		assertSame(i, t.assemble(i, null));
+	}
+	
+	public void testSqltypeParameter() {
+		Properties p = new Properties();
+		p.setProperty("sqltype", InstantUserType.DB_FORMAT_DATETIME);
+		
+		InstantUserType t = new InstantUserType();
+		t.setParameterValues(p);
+		
+		assertEquals(Types.TIMESTAMP, t.sqlTypes()[0]);
+	}
+	
+	/**
+	 * Mapping parameters that don't mention the sqltype shouldn't knock a
+	 * sqltype-specific subclass back to the default.
+	 */
+	public void testSubclassSqltypeSurvivesParameters() {
+		InstantUserType t = new TimestampInstantUserType();
+		t.setParameterValues(new Properties());
+		
+		assertEquals(Types.TIMESTAMP, t.sqlTypes()[0]);
+	}
+	
+	public void testBigintSqltype() {
+		Properties p = new Properties();
+		p.setProperty("sqltype", InstantUserType.DB_FORMAT_BIGINT);
+		
+		InstantUserType t = new InstantUserType();
+		t.setParameterValues(p);
+		
+		assertEquals(Types.BIGINT, t.sqlTypes()[0]);
+		
+		t = new BigintInstantUserType();
+		t.setParameterValues(new Properties());
+		
+		assertEquals(Types.BIGINT, t.sqlTypes()[0]);
+	}
+	
+	public void testUnsupportedSqltype() {
+		Properties p = new Properties();
+		p.setProperty("sqltype", "varchar");
+		
+		try {
+			new InstantUserType().setParameterValues(p);
+			fail();
+		}
+		catch (HibernateException expected) {
+		}
 	}
 }
@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.criterion.Criterion;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.joda.time.Interval;
+
+import com.moss.jodapersist.IntervalRestrictions;
+import com.moss.jodapersist.IntervalUserType;
+
+public class IntervalUserTypeTest extends TestCase {
+	private static final String[] NAMES = { "c0", "c1" };
+	private static final long HOUR = 60 * 60 * 1000L;
+	private static final long ORIGIN = 1199145600000L;
+	private static final int STARTS = 10, MAX_HOURS = 4;
+	
+	private final IntervalUserType userType = new IntervalUserType();
+	
+	private SessionFactory sessionFactory;
+	private Session session;
+	private List stored;
+	
+	protected void setUp() throws Exception {
+		Logger.getLogger("org.hibernate").setLevel(Level.WARN);
+		
+		sessionFactory = new Configuration()
+			.setProperty("hibernate.connection.driver_class","org.hsqldb.jdbcDriver")
+			.setProperty("hibernate.dialect","org.hibernate.dialect.HSQLDialect")
+			.setProperty("hibernate.connection.url","jdbc:hsqldb:mem:intervals")
+			.setProperty("hibernate.connection.username","sa")
+			.setProperty("hibernate.connection.password","")
+			.setProperty("hibernate.connection.pool_size", "1")
+			.setProperty("hibernate.hbm2ddl.auto","create-drop")
+			.addClass(PersistedTemporals.class)
+			.buildSessionFactory();
+		
+		stored = intervals();
+		session = sessionFactory.openSession();
+		session.beginTransaction();
+		for (Iterator i = stored.iterator(); i.hasNext();) {
+			PersistedTemporals row = new PersistedTemporals();
+			row.setInterval((Interval)i.next());
+			session.save(row);
+		}
+		session.save(new PersistedTemporals());
+		session.getTransaction().commit();
+		session.clear();
+	}
+	
+	protected void tearDown() throws Exception {
+		session.close();
+		sessionFactory.close();
+	}
+	
+	public void testRoundTrip() throws Exception {
+		Interval interval = new Interval(ORIGIN, ORIGIN + HOUR);
+		StubPreparedStatement statement = new StubPreparedStatement(2);
+		userType.nullSafeSet(statement, interval, 1, null);
+		
+		StubResultSet resultSet = new StubResultSet(NAMES, new Object[] { statement.getValue(1), statement.getValue(2) });
+		assertEquals(interval, userType.nullSafeGet(resultSet, NAMES, null, null));
+		
+		assertEquals(interval, userType.assemble(userType.disassemble(interval, null), null, null));
+		assertTrue(userType.equals(interval, new Interval(ORIGIN, ORIGIN + HOUR)));
+		assertEquals(userType.hashCode(interval), userType.hashCode(new Interval(ORIGIN, ORIGIN + HOUR)));
+		assertFalse(userType.equals(interval, new Interval(ORIGIN, ORIGIN + 2 * HOUR)));
+	}
+	
+	public void testNulls() throws Exception {
+		StubPreparedStatement statement = new StubPreparedStatement(2);
+		userType.nullSafeSet(statement, null, 1, null);
+		assertTrue(statement.isNull(1));
+		assertTrue(statement.isNull(2));
+		
+		assertNull(userType.nullSafeGet(new StubResultSet(NAMES, new Object[] { null, null }), NAMES, null, null));
+		assertNull(userType.disassemble(null, null));
+		assertNull(userType.assemble(null, null, null));
+	}
+	
+	public void testLoaded() throws Exception {
+		List loaded = session.createQuery("select p.interval from PersistedTemporals p where p.interval.start = :start and p.interval.end = :end")
+			.setLong("start", ORIGIN + HOUR)
+			.setLong("end", ORIGIN + 3 * HOUR)
+			.list();
+		assertEquals(Collections.singletonList(new Interval(ORIGIN + HOUR, ORIGIN + 3 * HOUR)), loaded);
+	}
+	
+	/**
+	 * Each restriction must select exactly the stored intervals for which the 
+	 * ReadableInterval method of the same name is true.
+	 */
+	public void testRestrictions() throws Exception {
+		Duration maxLength = new Duration(MAX_HOURS * HOUR);
+		
+		for (Iterator i = intervals().iterator(); i.hasNext();) {
+			Interval other = (Interval)i.next();
+			
+			List expected = new ArrayList();
+			for (Iterator j = stored.iterator(); j.hasNext();) {
+				Interval interval = (Interval)j.next();
+				if (interval.overlaps(other)) expected.add(interval);
+			}
+			assertMatches("overlaps " + other, expected, IntervalRestrictions.overlaps("interval", other));
+			assertMatches("overlaps " + other + " max " + maxLength, expected, IntervalRestrictions.overlaps("interval", other, maxLength));
+			
+			expected.clear();
+			for (Iterator j = stored.iterator(); j.hasNext();) {
+				Interval interval = (Interval)j.next();
+				if (interval.contains(other)) expected.add(interval);
+			}
+			assertMatches("contains " + other, expected, IntervalRestrictions.contains("interval", other));
+			
+			expected.clear();
+			for (Iterator j = stored.iterator(); j.hasNext();) {
+				Interval interval = (Interval)j.next();
+				if (interval.abuts(other)) expected.add(interval);
+			}
+			assertMatches("abuts " + other, expected, IntervalRestrictions.abuts("interval", other));
+			
+			Instant instant = other.getStart().toInstant();
+			expected.clear();
+			for (Iterator j = stored.iterator(); j.hasNext();) {
+				Interval interval = (Interval)j.next();
+				if (interval.contains(instant)) expected.add(interval);
+			}
+			assertMatches("contains " + instant, expected, IntervalRestrictions.contains("interval", instant));
+		}
+	}
+	
+	private void assertMatches(String message, List expected, Criterion criterion) {
+		List found = new ArrayList();
+		for (Iterator i = session.createCriteria(PersistedTemporals.class).add(criterion).list().iterator(); i.hasNext();) {
+			found.add(((PersistedTemporals)i.next()).getInterval());
+		}
+		assertEquals(message, expected.size(), found.size());
+		assertTrue(message, found.containsAll(expected));
+	}
+	
+	/**
+	 * @return every interval starting on one of the first hours after ORIGIN and lasting
+	 * 	up to MAX_HOURS hours, empty ones included
+	 */
+	private static List intervals() {
+		List intervals = new ArrayList();
+		for (int start = 0; start < STARTS; start++) {
+			for (int hours = 0; hours <= MAX_HOURS; hours++) {
+				intervals.add(new Interval(ORIGIN + start * HOUR, ORIGIN + (start + hours) * HOUR));
+			}
+		}
+		return intervals;
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.sql.Timestamp;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.hibernate.usertype.UserType;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.joda.time.YearMonthDay;
+
+import com.moss.jodapersist.BigintDurationUserType;
+import com.moss.jodapersist.BigintInstantUserType;
+import com.moss.jodapersist.DurationUserType;
+import com.moss.jodapersist.InstantUserType;
+import com.moss.jodapersist.IntegerYearMonthDayUserType;
+import com.moss.jodapersist.NumericYearMonthDayUserType;
+import com.moss.jodapersist.StringYearMonthDayUserType;
+import com.moss.jodapersist.TimestampInstantUserType;
+import com.moss.jodapersist.TimestampYearMonthDayUserType;
+
+/**
+ * nullSafeGet should read each column exactly once, and allocate nothing beyond the
+ * value it returns.
+ */
+public class NullSafeGetTest extends TestCase {
+	private static final String[] NAMES = { "c0" };
+	
+	/**
+	 * Generous upper bounds on the bytes allocated per nullSafeGet, i.e. the size of
+	 * the returned value.
+	 */
+	private static final long
+		INSTANT_BYTES = 32,
+		YEAR_MONTH_DAY_BYTES = 64;
+	
+	public void testNumericInstant() throws Exception {
+		assertSingleRead(new InstantUserType(), new Long(1146488400000L), new Instant(1146488400000L));
+		assertAllocation(new InstantUserType(), new Long(1146488400000L), INSTANT_BYTES);
+	}
+	
+	public void testBigintInstant() throws Exception {
+		assertSingleRead(new BigintInstantUserType(), new Long(1146488400000L), new Instant(1146488400000L));
+		assertAllocation(new BigintInstantUserType(), new Long(1146488400000L), INSTANT_BYTES);
+	}
+	
+	public void testTimestampInstant() throws Exception {
+		assertSingleRead(new TimestampInstantUserType(), new Timestamp(1146488400000L), null);
+	}
+	
+	public void testNumericYearMonthDay() throws Exception {
+		assertSingleRead(new NumericYearMonthDayUserType(), new Long(20060501), new YearMonthDay(2006, 5, 1));
+		assertAllocation(new NumericYearMonthDayUserType(), new Long(20060501), YEAR_MONTH_DAY_BYTES);
+	}
+	
+	public void testIntegerYearMonthDay() throws Exception {
+		assertSingleRead(new IntegerYearMonthDayUserType(), new Integer(20060501), new YearMonthDay(2006, 5, 1));
+		assertAllocation(new IntegerYearMonthDayUserType(), new Integer(20060501), YEAR_MONTH_DAY_BYTES);
+	}
+	
+	public void testCachedYearMonthDay() throws Exception {
+		NumericYearMonthDayUserType type = new NumericYearMonthDayUserType();
+		Properties p = new Properties();
+		p.setProperty("cacheSize", "16");
+		type.setParameterValues(p);
+		
+		assertSingleRead(type, new Long(20060501), new YearMonthDay(2006, 5, 1));
+		assertAllocation(type, new Long(20060501), 0);
+	}
+	
+	public void testStringYearMonthDay() throws Exception {
+		assertSingleRead(new StringYearMonthDayUserType(), "2006-05-01", new YearMonthDay(2006, 5, 1));
+		assertAllocation(new StringYearMonthDayUserType(), "2006-05-01", YEAR_MONTH_DAY_BYTES);
+	}
+	
+	public void testTimestampYearMonthDay() throws Exception {
+		assertSingleRead(new TimestampYearMonthDayUserType(), new Timestamp(1146488400000L), null);
+	}
+	
+	public void testDuration() throws Exception {
+		assertSingleRead(new DurationUserType(), new Long(1000), new Duration(1000));
+		assertAllocation(new DurationUserType(), new Long(1000), INSTANT_BYTES);
+	}
+	
+	public void testBigintDuration() throws Exception {
+		assertSingleRead(new BigintDurationUserType(), new Long(1000), new Duration(1000));
+		assertAllocation(new BigintDurationUserType(), new Long(1000), INSTANT_BYTES);
+	}
+	
+	/**
+	 * @param expected the value nullSafeGet should return, or null to only check that it
+	 * 	returns something
+	 */
+	private void assertSingleRead(UserType type, Object column, Object expected) throws Exception {
+		StubResultSet resultSet = new StubResultSet(NAMES, new Object[] { column });
+		Object value = type.nullSafeGet(resultSet, NAMES, null);
+		
+		assertEquals(1, resultSet.getReadCount());
+		if (expected != null) {
+			assertEquals(expected, value);
+		}
+		else {
+			assertNotNull(value);
+		}
+		
+		resultSet = new StubResultSet(NAMES, new Object[] { null });
+		
+		assertNull(type.nullSafeGet(resultSet, NAMES, null));
+		assertEquals(1, resultSet.getReadCount());
+	}
+	
+	private void assertAllocation(UserType type, Object column, long maxBytesPerGet) throws Exception {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+			return; // can't count allocations on this vm
+		}
+		com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean)threads;
+		long thread = Thread.currentThread().getId();
+		
+		StubResultSet resultSet = new StubResultSet(NAMES, new Object[] { column });
+		final int iterations = 10000;
+		
+		for (int i = 0; i < iterations; i++) {
+			type.nullSafeGet(resultSet, NAMES, null);
+		}
+		
+		long before = counter.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < iterations; i++) {
+			type.nullSafeGet(resultSet, NAMES, null);
+		}
+		long bytesPerGet = (counter.getThreadAllocatedBytes(thread) - before) / iterations;
+		
+		assertTrue(type.getClass().getName() + " allocated " + bytesPerGet + " bytes per nullSafeGet", bytesPerGet <= maxBytesPerGet);
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.sql.Types;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.hibernate.HibernateException;
+import org.joda.time.Period;
+
+import com.moss.jodapersist.PeriodUserType;
+import com.moss.jodapersist.SplitHoursMinutesDurationUserType;
+
+public class PeriodUserTypeTest extends TestCase {
+	private static final String[] PACKED_NAMES = { "c0" };
+	private static final String[] FIELD_NAMES = { "c0", "c1", "c2", "c3", "c4", "c5", "c6", "c7" };
+	
+	public void testPackedRoundTrip() throws Exception {
+		PeriodUserType t = new PeriodUserType();
+		assertEquals(Types.BIGINT, t.sqlTypes()[0]);
+		
+		Period[] periods = {
+			Period.ZERO,
+			new Period(1, 2, 3, 4, 5, 6, 7, 8),
+			new Period(-1, -2, -3, -4, -5, -6, -7, -8),
+			new Period(0, 0, 0, 6, 23, 59, 59, 999),
+			new Period(43000, 11, 0, 0, 0, 0, 0, 0),
+			new Period(-43000, -11, 0, 0, 0, 0, 0, 0),
+			new Period(0, 0, 14000, 0, 0, 0, 0, 0),
+			new Period(0, 0, -14000, 0, 0, 0, 0, 0),
+		};
+		for (int i = 0; i < periods.length; i++) {
+			assertEquals(periods[i], roundTrip(t, periods[i], PACKED_NAMES));
+		}
+	}
+	
+	public void testPackedNormalizes() throws Exception {
+		PeriodUserType t = new PeriodUserType();
+		Period unnormalized = new Period(0, 14, 0, 8, 25, 90, 0, 0);
+		Period normalized = new Period(1, 2, 1, 2, 2, 30, 0, 0);
+		
+		assertEquals(normalized, roundTrip(t, unnormalized, PACKED_NAMES));
+		assertTrue(t.equals(unnormalized, normalized));
+		assertEquals(t.hashCode(unnormalized), t.hashCode(normalized));
+		assertFalse(t.equals(normalized, normalized.plusMillis(1)));
+		
+		Period mixed = new Period(0, 1, 0, -1, 0, 0, 0, 0);
+		assertEquals(mixed, roundTrip(t, mixed, PACKED_NAMES));
+	}
+	
+	public void testPackedRange() throws Exception {
+		PeriodUserType t = new PeriodUserType();
+		Period[] tooLong = { Period.months(1 << 19), Period.months(-(1 << 19)), Period.weeks(14600), Period.weeks(-14600) };
+		for (int i = 0; i < tooLong.length; i++) {
+			try {
+				t.nullSafeSet(new StubPreparedStatement(1), tooLong[i], 1);
+				fail(tooLong[i].toString());
+			}
+			catch (HibernateException e) {
+			}
+		}
+	}
+	
+	public void testFieldsRoundTrip() throws Exception {
+		PeriodUserType t = integer();
+		assertEquals(8, t.sqlTypes().length);
+		
+		Period[] periods = {
+			Period.ZERO,
+			new Period(1, 2, 3, 4, 5, 6, 7, 8),
+			new Period(0, 14, 0, 8, 25, 90, 0, 0),
+			new Period(Integer.MAX_VALUE, 0, 0, Integer.MIN_VALUE, 0, 0, 0, 0),
+		};
+		for (int i = 0; i < periods.length; i++) {
+			assertEquals(periods[i], roundTrip(t, periods[i], FIELD_NAMES));
+		}
+		assertFalse(t.equals(new Period(0, 0, 0, 0, 0, 90, 0, 0), new Period(0, 0, 0, 0, 1, 30, 0, 0)));
+	}
+	
+	public void testNulls() throws Exception {
+		PeriodUserType[] types = { new PeriodUserType(), integer() };
+		String[][] names = { PACKED_NAMES, FIELD_NAMES };
+		
+		for (int i = 0; i < types.length; i++) {
+			int columns = names[i].length;
+			StubPreparedStatement statement = new StubPreparedStatement(columns);
+			types[i].nullSafeSet(statement, null, 1);
+			for (int j = 1; j <= columns; j++) {
+				assertTrue(statement.isNull(j));
+			}
+			assertNull(types[i].nullSafeGet(new StubResultSet(names[i], new Object[columns]), names[i], null));
+			assertNull(types[i].disassemble(null));
+			assertNull(types[i].assemble(null, null));
+		}
+	}
+	
+	public void testDisassemble() throws Exception {
+		Period period = new Period(1, 2, 3, 4, 5, 6, 7, 8);
+		
+		PeriodUserType packed = new PeriodUserType();
+		assertTrue(packed.disassemble(period) instanceof Long);
+		assertEquals(period, packed.assemble(packed.disassemble(period), null));
+		
+		PeriodUserType fields = integer();
+		assertTrue(fields.disassemble(period) instanceof int[]);
+		assertEquals(period, fields.assemble(fields.disassemble(period), null));
+	}
+	
+	@SuppressWarnings("deprecation")
+	public void testSplitHoursMinutes() throws Exception {
+		SplitHoursMinutesDurationUserType t = new SplitHoursMinutesDurationUserType();
+		String[] names = { "c0", "c1" };
+		Period period = new Period(0, 0, 0, 2, 5, 45, 0, 0);
+		
+		StubPreparedStatement statement = new StubPreparedStatement(2);
+		t.nullSafeSet(statement, period, 1);
+		assertEquals(new Long(5), statement.getValue(1));
+		assertEquals(new Long(45), statement.getValue(2));
+		
+		Period read = (Period)t.nullSafeGet(new StubResultSet(names, new Object[] { statement.getValue(1), statement.getValue(2) }), names, null);
+		assertEquals(new Period(5, 45, 0, 0), read);
+		assertEquals(read, t.assemble(t.disassemble(read), null));
+		
+		statement = new StubPreparedStatement(2);
+		t.nullSafeSet(statement, null, 1);
+		assertTrue(statement.isNull(1));
+		assertTrue(statement.isNull(2));
+		assertNull(t.nullSafeGet(new StubResultSet(names, new Object[2]), names, null));
+	}
+	
+	private static PeriodUserType integer() {
+		Properties p = new Properties();
+		p.setProperty("sqltype", PeriodUserType.DB_FORMAT_INTEGER);
+		PeriodUserType t = new PeriodUserType();
+		t.setParameterValues(p);
+		return t;
+	}
+	
+	private static Period roundTrip(PeriodUserType t, Period period, String[] names) throws Exception {
+		StubPreparedStatement statement = new StubPreparedStatement(names.length);
+		t.nullSafeSet(statement, period, 1);
+		
+		Object[] values = new Object[names.length];
+		for (int i = 0; i < names.length; i++) {
+			values[i] = statement.getValue(i + 1);
+		}
+		return (Period)t.nullSafeGet(new StubResultSet(names, values), names, null);
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import junit.framework.TestCase;
+
+import org.joda.time.Duration;
+
+import com.moss.hibernate.util.QuickImmutableUserType;
+import com.moss.jodapersist.DurationUserType;
+
+public class QuickImmutableUserTypeTest extends TestCase {
+	
+	public void testColumnIndexResolvedOncePerResultSet() throws Exception {
+		DurationUserType type = new DurationUserType();
+		String[] names = { "a", "b" };
+		StubResultSet resultSet = new StubResultSet(names, new Object[] { new Long(1), new Long(2) });
+		
+		for (int i = 0; i < 100; i++) {
+			assertEquals(new Duration(2), type.nullSafeGet(resultSet, new String[] { "b" }, null));
+		}
+		assertEquals(1, resultSet.getMetaDataCount());
+		
+		// an alias differing from the label in case is matched once more
+		for (int i = 0; i < 100; i++) {
+			assertEquals(new Duration(1), type.nullSafeGet(resultSet, new String[] { "A" }, null));
+		}
+		assertEquals(2, resultSet.getMetaDataCount());
+		assertEquals(0, resultSet.getLookupCount());
+		
+		StubResultSet reordered = new StubResultSet(new String[] { "b", "a" }, new Object[] { new Long(2), new Long(1) });
+		assertEquals(new Duration(1), type.nullSafeGet(reordered, new String[] { "a" }, null));
+		assertEquals(1, reordered.getMetaDataCount());
+	}
+	
+	/**
+	 * A self-join reads the property under two aliases, and a nested query reads it from
+	 * a second ResultSet while the first is open; neither should resolve names per row.
+	 */
+	public void testAliasesAndResultSetsInterleaved() throws Exception {
+		DurationUserType type = new DurationUserType();
+		String[] names = { "a", "b" };
+		StubResultSet first = new StubResultSet(names, new Object[] { new Long(1), new Long(2) });
+		StubResultSet second = new StubResultSet(names, new Object[] { new Long(3), new Long(4) });
+		
+		for (int i = 0; i < 100; i++) {
+			assertEquals(new Duration(1), type.nullSafeGet(first, new String[] { "a" }, null));
+			assertEquals(new Duration(2), type.nullSafeGet(first, new String[] { "b" }, null));
+			assertEquals(new Duration(3), type.nullSafeGet(second, new String[] { "a" }, null));
+			assertEquals(new Duration(4), type.nullSafeGet(second, new String[] { "b" }, null));
+		}
+		assertEquals(1, first.getMetaDataCount());
+		assertEquals(1, second.getMetaDataCount());
+		assertEquals(0, first.getLookupCount() + second.getLookupCount());
+	}
+	
+	/**
+	 * Sessions on different threads share the type instance.
+	 */
+	public void testConcurrentResultSets() throws Exception {
+		final DurationUserType type = new DurationUserType();
+		final StubResultSet[] resultSets = new StubResultSet[4];
+		final Throwable[] failures = new Throwable[resultSets.length];
+		Thread[] threads = new Thread[resultSets.length];
+		
+		for (int i = 0; i < threads.length; i++) {
+			final int n = i;
+			resultSets[n] = new StubResultSet(new String[] { "a", "b" }, new Object[] { new Long(n), new Long(-n) });
+			threads[n] = new Thread() {
+				public void run() {
+					try {
+						for (int row = 0; row < 10000; row++) {
+							assertEquals(new Duration(n), type.nullSafeGet(resultSets[n], new String[] { "a" }, null));
+							assertEquals(new Duration(-n), type.nullSafeGet(resultSets[n], new String[] { "b" }, null));
+						}
+					}
+					catch (Throwable t) {
+						failures[n] = t;
+					}
+				}
+			};
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+			if (failures[i] != null) {
+				throw new RuntimeException(failures[i]);
+			}
+			assertEquals(1, resultSets[i].getMetaDataCount());
+			assertEquals(0, resultSets[i].getLookupCount());
+		}
+	}
+	
+	/**
+	 * Subclasses written against the name-based getter keep working unchanged.
+	 */
+	public void testNameGetter() throws Exception {
+		QuickImmutableUserType type = new QuickImmutableUserType(String.class, Types.VARCHAR) {
+			public Object getFromResultSet(ResultSet results, String columnName) throws SQLException {
+				return results.getString(columnName);
+			}
+			public void setValueInStatement(PreparedStatement statement, Object value, int index) {}
+		};
+		
+		assertEquals("x", type.nullSafeGet(new StubResultSet("c0", "x"), new String[] { "c0" }, null));
+	}
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import junit.framework.TestCase;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.cfg.Configuration;
+import org.joda.time.Duration;
+import org.joda.time.YearMonthDay;
+
+import com.moss.hibernate.util.ScrollingResults;
+import com.moss.jodapersist.JodaTypes;
+
+public class ScrollingResultsTest extends TestCase {
+	private static final int ROWS = 250;
+	private static final YearMonthDay FIRST = new YearMonthDay(2006, 1, 1);
+	
+	private SessionFactory sessionFactory;
+	
+	protected void setUp() throws Exception {
+		Logger.getLogger("org.hibernate").setLevel(Level.WARN);
+		
+		sessionFactory = new Configuration()
+			.setProperty("hibernate.connection.driver_class","org.hsqldb.jdbcDriver")
+			.setProperty("hibernate.dialect","org.hibernate.dialect.HSQLDialect")
+			.setProperty("hibernate.connection.url","jdbc:hsqldb:mem:scrolling")
+			.setProperty("hibernate.connection.username","sa")
+			.setProperty("hibernate.connection.password","")
+			.setProperty("hibernate.connection.pool_size", "1")
+			.setProperty("hibernate.hbm2ddl.auto","create-drop")
+			.addClass(PersistedDates.class)
+			.addClass(PersistedDuration.class)
+			.addClass(PersistedSchedule.class)
+			.buildSessionFactory();
+		
+		Session session = sessionFactory.openSession();
+		session.beginTransaction();
+		for (int i = 0; i < ROWS; i++) {
+			PersistedDates dates = new PersistedDates();
+			dates.setYearMonthDay(FIRST.plusDays(i));
+			dates.setYearMonthDayNoon(FIRST.plusDays(i));
+			session.save(dates);
+			
+			PersistedSchedule schedule = new PersistedSchedule();
+			schedule.setDay(FIRST.plusDays(i));
+			schedule.setDuration(new PersistedDuration(new Duration(i)));
+			session.save(schedule.getDuration());
+			session.save(schedule);
+		}
+		session.getTransaction().commit();
+		session.close();
+	}
+	
+	protected void tearDown() throws Exception {
+		sessionFactory.close();
+	}
+	
+	public void testEntitiesEvicted() throws Exception {
+		Session session = sessionFactory.openSession();
+		ScrollingResults rows = ScrollingResults.scroll(session, 
+				session.createQuery("from " + PersistedDates.class.getName() + " p order by p.yearMonthDay"), 20);
+		
+		int count = 0;
+		PersistedDates previous = null;
+		while (rows.hasNext()) {
+			PersistedDates dates = (PersistedDates)rows.next();
+			assertEquals(FIRST.plusDays(count), dates.getYearMonthDay());
+			assertTrue(session.contains(dates));
+			if (previous != null) {
+				assertFalse(session.contains(previous));
+			}
+			assertEquals(1, session.getStatistics().getEntityCount());
+			previous = dates;
+			count++;
+		}
+		assertEquals(ROWS, count);
+		assertEquals(0, session.getStatistics().getEntityCount());
+		
+		rows.close();
+		session.close();
+	}
+	
+	/**
+	 * The many-to-one isn't cascaded to by evict, so what each row loads through it stays
+	 * in the session unless it is cleared.
+	 */
+	public void testEagerAssociationsCleared() throws Exception {
+		int fetchSize = 20;
+		Session session = sessionFactory.openSession();
+		ScrollingResults rows = ScrollingResults.scrollAndClear(session, 
+				session.createQuery("from " + PersistedSchedule.class.getName() + " s order by s.day"), fetchSize);
+		
+		int count = 0;
+		while (rows.hasNext()) {
+			PersistedSchedule schedule = (PersistedSchedule)rows.next();
+			assertEquals(FIRST.plusDays(count), schedule.getDay());
+			assertTrue(session.contains(schedule.getDuration()));
+			assertEquals(new Duration(count), schedule.getDuration().getDuration());
+			assertTrue(session.getStatistics().getEntityCount() <= 2 * fetchSize);
+			count++;
+		}
+		assertEquals(ROWS, count);
+		assertEquals(0, session.getStatistics().getEntityCount());
+		
+		rows.close();
+		session.close();
+	}
+	
+	/**
+	 * Plain scrolling only evicts the rows themselves, so entities the caller loaded 
+	 * beforehand stay attached and keep their changes.
+	 */
+	public void testOtherEntitiesKept() throws Exception {
+		Session session = sessionFactory.openSession();
+		session.beginTransaction();
+		PersistedSchedule loaded = (PersistedSchedule)session.createQuery("from " + PersistedSchedule.class.getName() + " s where s.day = :day")
+			.setParameter("day", FIRST, JodaTypes.YEAR_MONTH_DAY_INTEGER)
+			.uniqueResult();
+		loaded.setDay(FIRST.minusDays(1));
+		
+		ScrollingResults rows = ScrollingResults.scroll(session, 
+				session.createQuery("from " + PersistedDates.class.getName()), 20);
+		int count = 0;
+		while (rows.hasNext()) {
+			rows.next();
+			count++;
+		}
+		rows.close();
+		assertEquals(ROWS, count);
+		assertTrue(session.contains(loaded));
+		assertTrue(session.contains(loaded.getDuration()));
+		
+		session.getTransaction().commit();
+		session.close();
+		
+		session = sessionFactory.openSession();
+		assertEquals(FIRST.minusDays(1), ((PersistedSchedule)session.get(PersistedSchedule.class, loaded.getId())).getDay());
+		session.close();
+	}
+	
+	public void testInvalidFetchSize() throws Exception {
+		Session session = sessionFactory.openSession();
+		int[] sizes = { 0, -1 };
+		for (int i = 0; i < sizes.length; i++) {
+			try {
+				ScrollingResults.scroll(session, session.createQuery("from " + PersistedDates.class.getName()), sizes[i]);
+				fail();
+			}
+			catch (IllegalArgumentException expected) {
+			}
+		}
+		session.close();
+	}
+	
+	public void testStatelessProjection() throws Exception {
+		StatelessSession session = sessionFactory.openStatelessSession();
+		ScrollingResults rows = ScrollingResults.scroll(
+				session.createQuery("select p.yearMonthDay, p.yearMonthDayNoon from " + PersistedDates.class.getName() + " p order by p.yearMonthDay"), 50);
+		
+		int count = 0;
+		while (rows.hasNext()) {
+			Object[] row = (Object[])rows.next();
+			assertEquals(FIRST.plusDays(count), row[0]);
+			assertEquals(FIRST.plusDays(count), row[1]);
+			count++;
+		}
+		assertEquals(ROWS, count);
+		assertFalse(rows.hasNext());
+		
+		rows.close();
+		session.close();
+	}
+	
+	public void testCloseEarly() throws Exception {
+		Session session = sessionFactory.openSession();
+		ScrollingResults rows = ScrollingResults.scroll(session, 
+				session.createQuery("from " + PersistedDates.class.getName()), 20);
+		
+		rows.next();
+		rows.close();
+		rows.close();
+		
+		assertFalse(rows.hasNext());
+		assertEquals(0, session.getStatistics().getEntityCount());
+		session.close();
+	}
+}
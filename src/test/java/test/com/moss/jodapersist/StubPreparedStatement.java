@@ -0,0 +1,512 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * An in-memory {@link PreparedStatement} that remembers the last value bound to each
+ * parameter.  Primitive binds are kept unboxed so that binding itself does not allocate.
+ * Timestamps bound with a Calendar are shifted to the JVM's zone, as a driver would.
+ */
+public class StubPreparedStatement implements PreparedStatement {
+	private static final int UNBOUND = 0, NULL = 1, LONG = 2, OBJECT = 3;
+	
+	private final int[] kinds;
+	private final long[] longs;
+	private final Object[] objects;
+	private int batches;
+
+	public StubPreparedStatement(int parameterCount) {
+		kinds = new int[parameterCount];
+		longs = new long[parameterCount];
+		objects = new Object[parameterCount];
+	}
+
+	private void bind(int index, int kind, long l, Object o) {
+		kinds[index - 1] = kind;
+		longs[index - 1] = l;
+		objects[index - 1] = o;
+	}
+
+	/**
+	 * @return the value last bound to the parameter, boxed if it was bound as a primitive
+	 */
+	public Object getValue(int index) {
+		switch (kinds[index - 1]) {
+			case LONG: return Long.valueOf(longs[index - 1]);
+			case OBJECT: return objects[index - 1];
+			default: return null;
+		}
+	}
+
+	public boolean isNull(int index) {
+		return kinds[index - 1] == NULL;
+	}
+
+	/**
+	 * @return the sql type passed to setNull for the parameter
+	 */
+	public int getNullType(int index) {
+		return (int)longs[index - 1];
+	}
+
+	public int getBatchCount() {
+		return batches;
+	}
+
+	public ResultSet executeQuery() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int executeUpdate() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setNull(int arg0, int arg1) throws SQLException {
+		bind(arg0, NULL, arg1, null);
+	}
+
+	public void setBoolean(int arg0, boolean arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setByte(int arg0, byte arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setShort(int arg0, short arg1) throws SQLException {
+		bind(arg0, LONG, arg1, null);
+	}
+
+	public void setInt(int arg0, int arg1) throws SQLException {
+		bind(arg0, LONG, arg1, null);
+	}
+
+	public void setLong(int arg0, long arg1) throws SQLException {
+		bind(arg0, LONG, arg1, null);
+	}
+
+	public void setFloat(int arg0, float arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setDouble(int arg0, double arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setBigDecimal(int arg0, BigDecimal arg1) throws SQLException {
+		bind(arg0, OBJECT, 0, arg1);
+	}
+
+	public void setString(int arg0, String arg1) throws SQLException {
+		bind(arg0, OBJECT, 0, arg1);
+	}
+
+	public void setBytes(int arg0, byte[] arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setDate(int arg0, Date arg1) throws SQLException {
+		bind(arg0, OBJECT, 0, arg1);
+	}
+
+	public void setTime(int arg0, Time arg1) throws SQLException {
+		bind(arg0, OBJECT, 0, arg1);
+	}
+
+	public void setTimestamp(int arg0, Timestamp arg1) throws SQLException {
+		bind(arg0, OBJECT, 0, arg1);
+	}
+
+	public void setAsciiStream(int arg0, InputStream arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setUnicodeStream(int arg0, InputStream arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setBinaryStream(int arg0, InputStream arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void clearParameters() throws SQLException {
+		Arrays.fill(kinds, UNBOUND);
+	}
+
+	public void setObject(int arg0, Object arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setObject(int arg0, Object arg1) throws SQLException {
+		bind(arg0, OBJECT, 0, arg1);
+	}
+
+	public boolean execute() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void addBatch() throws SQLException {
+		batches++;
+	}
+
+	public void setCharacterStream(int arg0, Reader arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setRef(int arg0, Ref arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setBlob(int arg0, Blob arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setClob(int arg0, Clob arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setArray(int arg0, Array arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public ResultSetMetaData getMetaData() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setDate(int arg0, Date arg1, Calendar arg2) throws SQLException {
+		bind(arg0, OBJECT, 0, arg1);
+	}
+
+	public void setTime(int arg0, Time arg1, Calendar arg2) throws SQLException {
+		bind(arg0, OBJECT, 0, arg1);
+	}
+
+	public void setTimestamp(int arg0, Timestamp arg1, Calendar arg2) throws SQLException {
+		bind(arg0, OBJECT, 0, arg1 == null ? null : StubResultSet.reinterpret(arg1, arg2.getTimeZone(), TimeZone.getDefault()));
+	}
+
+	public void setNull(int arg0, int arg1, String arg2) throws SQLException {
+		setNull(arg0, arg1);
+	}
+
+	public void setURL(int arg0, URL arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public ParameterMetaData getParameterMetaData() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setRowId(int arg0, RowId arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setNString(int arg0, String arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setNCharacterStream(int arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setNClob(int arg0, NClob arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setClob(int arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setBlob(int arg0, InputStream arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setNClob(int arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setSQLXML(int arg0, SQLXML arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setObject(int arg0, Object arg1, int arg2, int arg3) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setAsciiStream(int arg0, InputStream arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setBinaryStream(int arg0, InputStream arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setCharacterStream(int arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setAsciiStream(int arg0, InputStream arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setBinaryStream(int arg0, InputStream arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setCharacterStream(int arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setNCharacterStream(int arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setClob(int arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setBlob(int arg0, InputStream arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setNClob(int arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public ResultSet executeQuery(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int executeUpdate(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void close() throws SQLException {
+	}
+
+	public int getMaxFieldSize() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setMaxFieldSize(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getMaxRows() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setMaxRows(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setEscapeProcessing(boolean arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getQueryTimeout() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setQueryTimeout(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void cancel() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public SQLWarning getWarnings() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void clearWarnings() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setCursorName(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean execute(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public ResultSet getResultSet() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getUpdateCount() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean getMoreResults() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setFetchDirection(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getFetchDirection() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setFetchSize(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getFetchSize() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getResultSetConcurrency() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getResultSetType() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void addBatch(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void clearBatch() throws SQLException {
+		batches = 0;
+	}
+
+	public int[] executeBatch() throws SQLException {
+		int[] counts = new int[batches];
+		batches = 0;
+		return counts;
+	}
+
+	public Connection getConnection() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean getMoreResults(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public ResultSet getGeneratedKeys() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int executeUpdate(String arg0, int arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int executeUpdate(String arg0, int[] arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int executeUpdate(String arg0, String[] arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean execute(String arg0, int arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean execute(String arg0, int[] arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean execute(String arg0, String[] arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getResultSetHoldability() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isClosed() throws SQLException {
+		return false;
+	}
+
+	public void setPoolable(boolean arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isPoolable() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void closeOnCompletion() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isCloseOnCompletion() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public <T> T unwrap(Class<T> arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isWrapperFor(Class<?> arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+}
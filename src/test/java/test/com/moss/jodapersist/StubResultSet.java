@@ -0,0 +1,927 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * An in-memory, single-row {@link ResultSet}.  Every read hands back the column values
+ * it was constructed with, so the user types can be driven in a tight loop without a
+ * database.  Timestamp values are taken to be in the JVM's zone, and are shifted when a
+ * Calendar is passed the way a driver would; other Calendars are ignored.
+ */
+public class StubResultSet implements ResultSet {
+	private final String[] names;
+	private final Object[] values;
+	private boolean wasNull;
+	private int reads;
+	private int lookups;
+	private int metaDataReads;
+
+	public StubResultSet(String name, Object value) {
+		this(new String[] { name }, new Object[] { value });
+	}
+
+	public StubResultSet(String[] names, Object[] values) {
+		this.names = names;
+		this.values = values;
+	}
+
+	public void setValue(int columnIndex, Object value) {
+		values[columnIndex - 1] = value;
+	}
+
+	/**
+	 * @return how many column values have been read, across all columns
+	 */
+	public int getReadCount() {
+		return reads;
+	}
+
+	/**
+	 * @return how many times a column name has been resolved to its index
+	 */
+	public int getLookupCount() {
+		return lookups;
+	}
+
+	/**
+	 * @return how many times the ResultSetMetaData has been asked for
+	 */
+	public int getMetaDataCount() {
+		return metaDataReads;
+	}
+
+	/**
+	 * @return a Timestamp showing the same wall-clock time in the target zone as the
+	 * 	given one does in the source zone
+	 */
+	static Timestamp reinterpret(Timestamp timestamp, TimeZone from, TimeZone to) {
+		Calendar source = new GregorianCalendar(from);
+		source.setTimeInMillis(timestamp.getTime());
+		
+		Calendar target = new GregorianCalendar(to);
+		target.clear();
+		target.set(source.get(Calendar.YEAR), source.get(Calendar.MONTH), source.get(Calendar.DAY_OF_MONTH), 
+				source.get(Calendar.HOUR_OF_DAY), source.get(Calendar.MINUTE), source.get(Calendar.SECOND));
+		
+		Timestamp result = new Timestamp(target.getTimeInMillis());
+		result.setNanos(timestamp.getNanos());
+		return result;
+	}
+
+	private Object read(int columnIndex) {
+		reads++;
+		Object value = values[columnIndex - 1];
+		wasNull = value == null;
+		return value;
+	}
+
+	public boolean next() throws SQLException {
+		return true;
+	}
+
+	public void close() throws SQLException {
+	}
+
+	public boolean wasNull() throws SQLException {
+		return wasNull;
+	}
+
+	public String getString(int arg0) throws SQLException {
+		Object value = read(arg0);
+		return value == null ? null : value.toString();
+	}
+
+	public boolean getBoolean(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public byte getByte(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public short getShort(int arg0) throws SQLException {
+		Object value = read(arg0);
+		return value == null ? 0 : ((Number)value).shortValue();
+	}
+
+	public int getInt(int arg0) throws SQLException {
+		Object value = read(arg0);
+		return value == null ? 0 : ((Number)value).intValue();
+	}
+
+	public long getLong(int arg0) throws SQLException {
+		Object value = read(arg0);
+		return value == null ? 0 : ((Number)value).longValue();
+	}
+
+	public float getFloat(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public double getDouble(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public BigDecimal getBigDecimal(int arg0, int arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public byte[] getBytes(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Date getDate(int arg0) throws SQLException {
+		return (Date)read(arg0);
+	}
+
+	public Time getTime(int arg0) throws SQLException {
+		return (Time)read(arg0);
+	}
+
+	public Timestamp getTimestamp(int arg0) throws SQLException {
+		return (Timestamp)read(arg0);
+	}
+
+	public InputStream getAsciiStream(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public InputStream getUnicodeStream(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public InputStream getBinaryStream(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getString(String arg0) throws SQLException {
+		return getString(findColumn(arg0));
+	}
+
+	public boolean getBoolean(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public byte getByte(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public short getShort(String arg0) throws SQLException {
+		return getShort(findColumn(arg0));
+	}
+
+	public int getInt(String arg0) throws SQLException {
+		return getInt(findColumn(arg0));
+	}
+
+	public long getLong(String arg0) throws SQLException {
+		return getLong(findColumn(arg0));
+	}
+
+	public float getFloat(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public double getDouble(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public BigDecimal getBigDecimal(String arg0, int arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public byte[] getBytes(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Date getDate(String arg0) throws SQLException {
+		return getDate(findColumn(arg0));
+	}
+
+	public Time getTime(String arg0) throws SQLException {
+		return getTime(findColumn(arg0));
+	}
+
+	public Timestamp getTimestamp(String arg0) throws SQLException {
+		return getTimestamp(findColumn(arg0));
+	}
+
+	public InputStream getAsciiStream(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public InputStream getUnicodeStream(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public InputStream getBinaryStream(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public SQLWarning getWarnings() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void clearWarnings() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getCursorName() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @return metadata answering only the column count and labels
+	 */
+	public ResultSetMetaData getMetaData() throws SQLException {
+		metaDataReads++;
+		return (ResultSetMetaData)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { ResultSetMetaData.class }, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (method.getName().equals("getColumnCount")) {
+					return Integer.valueOf(names.length);
+				}
+				else if (method.getName().equals("getColumnLabel") || method.getName().equals("getColumnName")) {
+					return names[((Integer)args[0]).intValue() - 1];
+				}
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+
+	public Object getObject(int arg0) throws SQLException {
+		return read(arg0);
+	}
+
+	public Object getObject(String arg0) throws SQLException {
+		return getObject(findColumn(arg0));
+	}
+
+	public int findColumn(String arg0) throws SQLException {
+		lookups++;
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equalsIgnoreCase(arg0)) return i + 1;
+		}
+		throw new SQLException("No such column: " + arg0);
+	}
+
+	public Reader getCharacterStream(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Reader getCharacterStream(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public BigDecimal getBigDecimal(int arg0) throws SQLException {
+		Object value = read(arg0);
+		if (value == null || value instanceof BigDecimal) return (BigDecimal)value;
+		return new BigDecimal(value.toString());
+	}
+
+	public BigDecimal getBigDecimal(String arg0) throws SQLException {
+		return getBigDecimal(findColumn(arg0));
+	}
+
+	public boolean isBeforeFirst() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isAfterLast() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isFirst() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isLast() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void beforeFirst() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void afterLast() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean first() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean last() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getRow() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean absolute(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean relative(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean previous() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setFetchDirection(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getFetchDirection() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setFetchSize(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getFetchSize() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getType() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getConcurrency() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean rowUpdated() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean rowInserted() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean rowDeleted() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNull(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBoolean(int arg0, boolean arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateByte(int arg0, byte arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateShort(int arg0, short arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateInt(int arg0, int arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateLong(int arg0, long arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateFloat(int arg0, float arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateDouble(int arg0, double arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBigDecimal(int arg0, BigDecimal arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateString(int arg0, String arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBytes(int arg0, byte[] arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateDate(int arg0, Date arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateTime(int arg0, Time arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateTimestamp(int arg0, Timestamp arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateAsciiStream(int arg0, InputStream arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBinaryStream(int arg0, InputStream arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateCharacterStream(int arg0, Reader arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateObject(int arg0, Object arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateObject(int arg0, Object arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNull(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBoolean(String arg0, boolean arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateByte(String arg0, byte arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateShort(String arg0, short arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateInt(String arg0, int arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateLong(String arg0, long arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateFloat(String arg0, float arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateDouble(String arg0, double arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBigDecimal(String arg0, BigDecimal arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateString(String arg0, String arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBytes(String arg0, byte[] arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateDate(String arg0, Date arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateTime(String arg0, Time arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateTimestamp(String arg0, Timestamp arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateAsciiStream(String arg0, InputStream arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBinaryStream(String arg0, InputStream arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateCharacterStream(String arg0, Reader arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateObject(String arg0, Object arg1, int arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateObject(String arg0, Object arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void insertRow() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateRow() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void deleteRow() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void refreshRow() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void cancelRowUpdates() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void moveToInsertRow() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void moveToCurrentRow() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Statement getStatement() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Object getObject(int arg0, Map<String, Class<?>> arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Ref getRef(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Blob getBlob(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Clob getClob(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Array getArray(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Object getObject(String arg0, Map<String, Class<?>> arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Ref getRef(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Blob getBlob(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Clob getClob(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Array getArray(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Date getDate(int arg0, Calendar arg1) throws SQLException {
+		return (Date)read(arg0);
+	}
+
+	public Date getDate(String arg0, Calendar arg1) throws SQLException {
+		return getDate(findColumn(arg0), arg1);
+	}
+
+	public Time getTime(int arg0, Calendar arg1) throws SQLException {
+		return (Time)read(arg0);
+	}
+
+	public Time getTime(String arg0, Calendar arg1) throws SQLException {
+		return getTime(findColumn(arg0), arg1);
+	}
+
+	public Timestamp getTimestamp(int arg0, Calendar arg1) throws SQLException {
+		Timestamp value = (Timestamp)read(arg0);
+		return value == null ? null : reinterpret(value, TimeZone.getDefault(), arg1.getTimeZone());
+	}
+
+	public Timestamp getTimestamp(String arg0, Calendar arg1) throws SQLException {
+		return getTimestamp(findColumn(arg0), arg1);
+	}
+
+	public URL getURL(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public URL getURL(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateRef(int arg0, Ref arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateRef(String arg0, Ref arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBlob(int arg0, Blob arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBlob(String arg0, Blob arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateClob(int arg0, Clob arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateClob(String arg0, Clob arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateArray(int arg0, Array arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateArray(String arg0, Array arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public RowId getRowId(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public RowId getRowId(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateRowId(int arg0, RowId arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateRowId(String arg0, RowId arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getHoldability() throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isClosed() throws SQLException {
+		return false;
+	}
+
+	public void updateNString(int arg0, String arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNString(String arg0, String arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNClob(int arg0, NClob arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNClob(String arg0, NClob arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public NClob getNClob(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public NClob getNClob(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public SQLXML getSQLXML(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public SQLXML getSQLXML(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateSQLXML(int arg0, SQLXML arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateSQLXML(String arg0, SQLXML arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getNString(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getNString(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Reader getNCharacterStream(int arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public Reader getNCharacterStream(String arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNCharacterStream(int arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNCharacterStream(String arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateAsciiStream(int arg0, InputStream arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBinaryStream(int arg0, InputStream arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateCharacterStream(int arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateAsciiStream(String arg0, InputStream arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBinaryStream(String arg0, InputStream arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateCharacterStream(String arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBlob(int arg0, InputStream arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBlob(String arg0, InputStream arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateClob(int arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateClob(String arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNClob(int arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNClob(String arg0, Reader arg1, long arg2) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNCharacterStream(int arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNCharacterStream(String arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateAsciiStream(int arg0, InputStream arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBinaryStream(int arg0, InputStream arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateCharacterStream(int arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateAsciiStream(String arg0, InputStream arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBinaryStream(String arg0, InputStream arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateCharacterStream(String arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBlob(int arg0, InputStream arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateBlob(String arg0, InputStream arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateClob(int arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateClob(String arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNClob(int arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void updateNClob(String arg0, Reader arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public <T> T getObject(int arg0, Class<T> arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public <T> T getObject(String arg0, Class<T> arg1) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public <T> T unwrap(Class<T> arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isWrapperFor(Class<?> arg0) throws SQLException {
+		throw new UnsupportedOperationException();
+	}
+}
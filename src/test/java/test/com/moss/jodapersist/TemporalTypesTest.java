@@ -0,0 +1,360 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.Time;
+import java.sql.Types;
+import java.util.List;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.Mappings;
+import org.hibernate.mapping.TypeDef;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.type.NullableType;
+import org.hibernate.type.Type;
+import org.hibernate.type.TypeFactory;
+import org.hibernate.usertype.ParameterizedType;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.joda.time.TimeOfDay;
+import org.joda.time.YearMonthDay;
+
+import com.moss.jodapersist.DurationType;
+import com.moss.jodapersist.DurationUserType;
+import com.moss.jodapersist.InstantType;
+import com.moss.jodapersist.JodaTypes;
+import com.moss.jodapersist.TimeOfDayType;
+import com.moss.jodapersist.YearMonthDayType;
+
+public class TemporalTypesTest extends TestCase {
+	private static final Instant INSTANT = new Instant(1199145600123L);
+	private static final YearMonthDay YEAR_MONTH_DAY = new YearMonthDay(2008, 2, 29);
+	private static final TimeOfDay TIME_OF_DAY = new TimeOfDay(17, 45, 30);
+	private static final Duration DURATION = new Duration(90061001L);
+	private static final DateTime DATE_TIME = new DateTime(1199145600123L, DateTimeZone.forID("Asia/Kolkata"));
+	
+	private SessionFactory sessionFactory;
+	
+	protected void setUp() throws Exception {
+		Logger.getLogger("org.hibernate").setLevel(Level.WARN);
+		
+		sessionFactory = new Configuration()
+			.setProperty("hibernate.connection.driver_class","org.hsqldb.jdbcDriver")
+			.setProperty("hibernate.dialect","org.hibernate.dialect.HSQLDialect")
+			.setProperty("hibernate.connection.url","jdbc:hsqldb:mem:temporals")
+			.setProperty("hibernate.connection.username","sa")
+			.setProperty("hibernate.connection.password","")
+			.setProperty("hibernate.connection.pool_size", "1")
+			.setProperty("hibernate.hbm2ddl.auto","create-drop")
+			.setProperty("hibernate.cache.provider_class", "org.hibernate.cache.HashtableCacheProvider")
+			.setProperty("hibernate.generate_statistics", "true")
+			.addClass(PersistedTemporals.class)
+			.setCacheConcurrencyStrategy(PersistedTemporals.class.getName(), "read-write")
+			.buildSessionFactory();
+	}
+	
+	protected void tearDown() throws Exception {
+		sessionFactory.close();
+	}
+	
+	public void testMappedWithoutCustomType() {
+		ClassMetadata metadata = sessionFactory.getClassMetadata(PersistedTemporals.class);
+		
+		assertEquals(InstantType.class, metadata.getPropertyType("instant").getClass());
+		assertEquals(YearMonthDayType.class, metadata.getPropertyType("yearMonthDay").getClass());
+		assertEquals(TimeOfDayType.class, metadata.getPropertyType("timeOfDay").getClass());
+		assertEquals(DurationType.class, metadata.getPropertyType("duration").getClass());
+		
+		assertEquals(Types.BIGINT, ((NullableType)metadata.getPropertyType("instant")).sqlType());
+		assertEquals(Types.INTEGER, ((NullableType)metadata.getPropertyType("yearMonthDay")).sqlType());
+		assertEquals(Types.INTEGER, ((NullableType)metadata.getPropertyType("timeOfDay")).sqlType());
+		assertEquals(Types.NUMERIC, ((NullableType)metadata.getPropertyType("duration")).sqlType());
+	}
+	
+	public void testRoundTrip() {
+		PersistedTemporals saved = new PersistedTemporals();
+		saved.setInstant(INSTANT);
+		saved.setYearMonthDay(YEAR_MONTH_DAY);
+		saved.setTimeOfDay(TIME_OF_DAY);
+		saved.setDuration(DURATION);
+		saved.setDateTime(DATE_TIME);
+		Long id = save(saved);
+		
+		Session session = sessionFactory.openSession();
+		PersistedTemporals loaded = (PersistedTemporals)session.get(PersistedTemporals.class, id);
+		assertEquals(INSTANT, loaded.getInstant());
+		assertEquals(YEAR_MONTH_DAY, loaded.getYearMonthDay());
+		assertEquals(TIME_OF_DAY, loaded.getTimeOfDay());
+		assertEquals(DURATION, loaded.getDuration());
+		assertEquals(DATE_TIME, loaded.getDateTime());
+		
+		List found = session.createQuery("from PersistedTemporals p where p.dateTime.millis = :millis")
+			.setLong("millis", DATE_TIME.getMillis())
+			.list();
+		assertEquals(1, found.size());
+		session.close();
+	}
+	
+	public void testSecondLevelCache() {
+		PersistedTemporals saved = new PersistedTemporals();
+		saved.setInstant(INSTANT);
+		saved.setYearMonthDay(YEAR_MONTH_DAY);
+		saved.setTimeOfDay(TIME_OF_DAY);
+		saved.setDuration(DURATION);
+		Long id = save(saved);
+		
+		Session session = sessionFactory.openSession();
+		session.get(PersistedTemporals.class, id);
+		session.close();
+		
+		sessionFactory.getStatistics().clear();
+		session = sessionFactory.openSession();
+		PersistedTemporals loaded = (PersistedTemporals)session.get(PersistedTemporals.class, id);
+		session.close();
+		
+		assertEquals(1, sessionFactory.getStatistics().getSecondLevelCacheHitCount());
+		assertEquals(INSTANT, loaded.getInstant());
+		assertEquals(YEAR_MONTH_DAY, loaded.getYearMonthDay());
+		assertEquals(TIME_OF_DAY, loaded.getTimeOfDay());
+		assertEquals(DURATION, loaded.getDuration());
+	}
+	
+	public void testNulls() {
+		Long id = save(new PersistedTemporals());
+		
+		Session session = sessionFactory.openSession();
+		PersistedTemporals loaded = (PersistedTemporals)session.get(PersistedTemporals.class, id);
+		assertNull(loaded.getInstant());
+		assertNull(loaded.getYearMonthDay());
+		assertNull(loaded.getTimeOfDay());
+		assertNull(loaded.getDuration());
+		assertNull(loaded.getDateTime());
+		session.close();
+	}
+	
+	public void testQueryParameters() {
+		PersistedTemporals saved = new PersistedTemporals();
+		saved.setInstant(INSTANT);
+		saved.setYearMonthDay(YEAR_MONTH_DAY);
+		save(saved);
+		save(new PersistedTemporals());
+		
+		ClassMetadata metadata = sessionFactory.getClassMetadata(PersistedTemporals.class);
+		Session session = sessionFactory.openSession();
+		List found = session.createQuery("from PersistedTemporals p where p.instant = :instant and p.yearMonthDay = :ymd")
+			.setParameter("instant", INSTANT, metadata.getPropertyType("instant"))
+			.setParameter("ymd", YEAR_MONTH_DAY, metadata.getPropertyType("yearMonthDay"))
+			.list();
+		assertEquals(1, found.size());
+		session.close();
+	}
+	
+	public void testQueryConstants() {
+		PersistedTemporals saved = new PersistedTemporals();
+		saved.setInstant(INSTANT);
+		saved.setYearMonthDay(YEAR_MONTH_DAY);
+		saved.setTimeOfDay(TIME_OF_DAY);
+		saved.setDuration(DURATION);
+		save(saved);
+		save(new PersistedTemporals());
+		
+		Session session = sessionFactory.openSession();
+		List found = session.createQuery("from PersistedTemporals p where p.instant = :instant and p.yearMonthDay = :ymd and p.duration = :duration")
+			.setParameter("instant", INSTANT, JodaTypes.INSTANT_BIGINT)
+			.setParameter("ymd", YEAR_MONTH_DAY, JodaTypes.YEAR_MONTH_DAY_INTEGER)
+			.setParameter("duration", DURATION, JodaTypes.DURATION_NUMERIC)
+			.list();
+		assertEquals(1, found.size());
+		
+		found = session.createQuery("from PersistedTemporals p where p.yearMonthDay < :ymd and p.timeOfDay is not null")
+			.setParameter("ymd", YEAR_MONTH_DAY.plusDays(1), JodaTypes.YEAR_MONTH_DAY_INTEGER)
+			.list();
+		assertEquals(1, found.size());
+		session.close();
+	}
+	
+	public void testTypeDefs() {
+		Configuration configuration = JodaTypes.registerTypeDefs(new Configuration());
+		Mappings mappings = configuration.createMappings();
+		
+		assertTypeDef(mappings, "instant_bigint", Types.BIGINT);
+		assertTypeDef(mappings, "instant_datetime", Types.TIMESTAMP);
+		assertTypeDef(mappings, "yearmonthday_epochday", Types.INTEGER);
+		assertTypeDef(mappings, "yearmonthday_date", Types.DATE);
+		assertTypeDef(mappings, "timeofday_time", Types.TIME);
+		assertTypeDef(mappings, "timeofday_string", Types.VARCHAR);
+		assertTypeDef(mappings, "duration_bigint", Types.BIGINT);
+	}
+	
+	private static void assertTypeDef(Mappings mappings, String name, int sqlType) {
+		TypeDef typeDef = mappings.getTypeDef(name);
+		NullableType type = (NullableType)TypeFactory.heuristicType(typeDef.getTypeClass(), typeDef.getParameters());
+		assertEquals(name, sqlType, type.sqlType());
+	}
+	
+	public void testStringValues() throws Exception {
+		assertStringRoundTrip(new InstantType(), INSTANT);
+		assertStringRoundTrip(new YearMonthDayType(), YEAR_MONTH_DAY);
+		assertStringRoundTrip(new TimeOfDayType(), new TimeOfDay(17, 45, 30, 250));
+		assertStringRoundTrip(new DurationType(), DURATION);
+	}
+	
+	public void testTimeOfDayColumnResolvedOnce() throws Exception {
+		TimeOfDayType type = new TimeOfDayType();
+		StubResultSet resultSet = new StubResultSet("c0", new Time(17, 45, 30));
+		
+		for (int i = 0; i < 100; i++) {
+			assertEquals(new TimeOfDay(17, 45, 30), type.nullSafeGet(resultSet, "c0"));
+		}
+		assertEquals(1, resultSet.getMetaDataCount());
+		assertEquals(0, resultSet.getLookupCount());
+	}
+	
+	public void testDisassemble() throws Exception {
+		assertEquals(new Long(INSTANT.getMillis()), JodaTypes.INSTANT_DATETIME.disassemble(INSTANT, null, null));
+		assertEquals(new Integer(20080229), JodaTypes.YEAR_MONTH_DAY_STRING.disassemble(YEAR_MONTH_DAY, null, null));
+		assertEquals(new Integer(63930000), JodaTypes.TIME_OF_DAY_TIME.disassemble(TIME_OF_DAY, null, null));
+		assertEquals(new Long(DURATION.getMillis()), JodaTypes.DURATION_BIGINT.disassemble(DURATION, null, null));
+		
+		assertEquals(INSTANT, JodaTypes.INSTANT_DATETIME.assemble(new Long(INSTANT.getMillis()), null, null));
+		assertEquals(YEAR_MONTH_DAY, JodaTypes.YEAR_MONTH_DAY_STRING.assemble(new Integer(20080229), null, null));
+		assertEquals(TIME_OF_DAY, JodaTypes.TIME_OF_DAY_TIME.assemble(new Integer(63930000), null, null));
+		assertEquals(DURATION, JodaTypes.DURATION_BIGINT.assemble(new Long(DURATION.getMillis()), null, null));
+		
+		// entries cached before the millis were
+		assertSame(DURATION, JodaTypes.DURATION_BIGINT.assemble(DURATION, null, null));
+		
+		DurationUserType durationUserType = new DurationUserType();
+		assertEquals(new Long(DURATION.getMillis()), durationUserType.disassemble(DURATION));
+		assertEquals(DURATION, durationUserType.assemble(new Long(DURATION.getMillis()), null));
+		assertSame(DURATION, durationUserType.assemble(DURATION, null));
+		assertNull(durationUserType.disassemble(null));
+		assertNull(durationUserType.assemble(null, null));
+	}
+	
+	/**
+	 * The constants are shared by the whole application.
+	 */
+	public void testConstantsFrozen() throws Exception {
+		ParameterizedType[] constants = {
+			JodaTypes.INSTANT_NUMERIC, JodaTypes.YEAR_MONTH_DAY_INTEGER, JodaTypes.TIME_OF_DAY_TIME, JodaTypes.DURATION_BIGINT
+		};
+		Properties p = new Properties();
+		p.setProperty("sqltype", "string");
+		
+		for (int i = 0; i < constants.length; i++) {
+			try {
+				constants[i].setParameterValues(p);
+				fail();
+			}
+			catch (UnsupportedOperationException expected) {
+			}
+		}
+		assertEquals(Types.NUMERIC, JodaTypes.INSTANT_NUMERIC.sqlType());
+		
+		InstantType configurable = new InstantType();
+		p.setProperty("sqltype", "bigint");
+		configurable.setParameterValues(p);
+		assertEquals(Types.BIGINT, configurable.sqlType());
+	}
+	
+	public void testSerializable() throws Exception {
+		YearMonthDayType type = new YearMonthDayType();
+		Properties p = new Properties();
+		p.setProperty("sqltype", "datetime");
+		p.setProperty("timezone", "Asia/Tokyo");
+		type.setParameterValues(p);
+		
+		YearMonthDayType copy = (YearMonthDayType)roundTrip(type);
+		assertEquals(Types.TIMESTAMP, copy.sqlType());
+		
+		TimeOfDayType timeOfDay = new TimeOfDayType();
+		p = new Properties();
+		p.setProperty("sqltype", "string");
+		timeOfDay.setParameterValues(p);
+		assertEquals(Types.VARCHAR, ((TimeOfDayType)roundTrip(timeOfDay)).sqlType());
+		
+		// the codec, zone included, is the type's serialized state
+		timeOfDay = new TimeOfDayType();
+		p.setProperty("sqltype", "datetime");
+		p.setProperty("timezone", "Asia/Tokyo");
+		p.setProperty("anchorDate", "2001-02-03");
+		timeOfDay.setParameterValues(p);
+		StubPreparedStatement statement = new StubPreparedStatement(1);
+		((TimeOfDayType)roundTrip(timeOfDay)).nullSafeSet(statement, new TimeOfDay(17, 45), 1, null);
+		Object stored = statement.getValue(1);
+		timeOfDay.nullSafeSet(statement, new TimeOfDay(17, 45), 1, null);
+		assertEquals(statement.getValue(1), stored);
+		
+		assertEquals(Types.NUMERIC, ((InstantType)roundTrip(new InstantType())).sqlType());
+	}
+	
+	private Long save(PersistedTemporals temporals) {
+		Session session = sessionFactory.openSession();
+		session.beginTransaction();
+		session.save(temporals);
+		session.getTransaction().commit();
+		session.close();
+		return temporals.getId();
+	}
+	
+	private static void assertStringRoundTrip(NullableType type, Object value) {
+		assertEquals(value, type.fromStringValue(type.toString(value)));
+	}
+	
+	private static Type roundTrip(Type type) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(type);
+		out.close();
+		return (Type)new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+	}
+}
@@ -0,0 +1,308 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.hibernate.HibernateException;
+import org.hibernate.usertype.UserType;
+import org.joda.time.LocalDateTime;
+import org.joda.time.TimeOfDay;
+import org.joda.time.chrono.CopticChronology;
+
+import com.moss.jodapersist.AnsiTimeOfDay;
+import com.moss.jodapersist.NumericTimeOfDayUserType;
+import com.moss.jodapersist.StringTimeOfDayUserType;
+import com.moss.jodapersist.TimestampTimeOfDayUserType;
+
+public class TimeOfDayUserTypeTest extends TestCase {
+	private static final String[] NAMES = { "c0" };
+	
+	/**
+	 * Minute- and second-aligned values come from a shared table, but must be
+	 * indistinguishable from freshly constructed ones.
+	 */
+	public void testAlignedValuesShared() throws Exception {
+		assertShared(new StringTimeOfDayUserType(), "05:30", new TimeOfDay(5, 30));
+		assertShared(new StringTimeOfDayUserType(), "00:00", new TimeOfDay(0, 0));
+		assertShared(new StringTimeOfDayUserType(), "23:59", new TimeOfDay(23, 59));
+		assertShared(new AnsiTimeOfDay(), new Time(5, 30, 15), new TimeOfDay(5, 30, 15));
+		assertShared(new TimestampTimeOfDayUserType(), boundValue(new TimestampTimeOfDayUserType(), new TimeOfDay(5, 30, 15)), new TimeOfDay(5, 30, 15));
+	}
+	
+	public void testUnalignedValues() throws Exception {
+		TimeOfDay expected = new TimeOfDay(5, 30, 15, 2);
+		UserType type = new TimestampTimeOfDayUserType();
+		Object bound = boundValue(type, expected);
+		
+		assertEquals(expected, type.nullSafeGet(new StubResultSet("c0", bound), NAMES, null));
+	}
+	
+	public void testAnsiTime() throws Exception {
+		UserType type = new AnsiTimeOfDay();
+		
+		// the same value the deprecated Time constructor used to produce
+		assertEquals(new Time(17, 45, 12), boundValue(type, new TimeOfDay(17, 45, 12)));
+		
+		TimeOfDay[] values = { new TimeOfDay(0, 0), new TimeOfDay(5, 30, 15, 2), new TimeOfDay(23, 59, 59, 999) };
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(values[i], type.nullSafeGet(new StubResultSet("c0", boundValue(type, values[i])), NAMES, null));
+		}
+		
+		StubPreparedStatement statement = new StubPreparedStatement(1);
+		type.nullSafeSet(statement, null, 1);
+		assertTrue(statement.isNull(1));
+		assertNull(type.nullSafeGet(new StubResultSet("c0", null), NAMES, null));
+	}
+	
+	public void testInvalidFields() throws Exception {
+		try {
+			new StringTimeOfDayUserType().nullSafeGet(new StubResultSet("c0", "24:00"), NAMES, null);
+			fail();
+		}
+		catch (IllegalArgumentException e) {}
+	}
+	
+	public void testStringRoundTrip() throws Exception {
+		UserType type = new StringTimeOfDayUserType();
+		
+		assertEquals("17:45", boundValue(type, new TimeOfDay(17, 45, 12, 3)));
+		assertEquals("00:05", boundValue(type, new TimeOfDay(0, 5)));
+		assertEquals(new TimeOfDay(5, 3), type.nullSafeGet(new StubResultSet("c0", "5:3"), NAMES, null));
+		
+		for (int minute = 0; minute < 24 * 60; minute++) {
+			TimeOfDay expected = new TimeOfDay(minute / 60, minute % 60);
+			assertEquals(expected, type.nullSafeGet(new StubResultSet("c0", boundValue(type, expected)), NAMES, null));
+		}
+	}
+	
+	/**
+	 * Earlier versions wrote a 12-hour hh:mm without AM/PM.
+	 */
+	public void testLegacyString() throws Exception {
+		StringTimeOfDayUserType type = new StringTimeOfDayUserType();
+		
+		// rows they wrote for 17:45 and 00:30 read back as 05:45 and 12:30
+		assertEquals(new TimeOfDay(5, 45), type.nullSafeGet(new StubResultSet("c0", "05:45"), NAMES, null));
+		assertEquals(new TimeOfDay(12, 30), type.nullSafeGet(new StubResultSet("c0", "12:30"), NAMES, null));
+		
+		Properties p = new Properties();
+		p.setProperty("format", StringTimeOfDayUserType.FORMAT_12_HOUR);
+		type.setParameterValues(p);
+		assertEquals("05:45", boundValue(type, new TimeOfDay(17, 45)));
+		assertEquals("12:30", boundValue(type, new TimeOfDay(0, 30)));
+		assertEquals("12:30", boundValue(type, new TimeOfDay(12, 30)));
+		assertEquals("09:15", boundValue(type, new TimeOfDay(9, 15)));
+		assertEquals(new TimeOfDay(5, 45), type.nullSafeGet(new StubResultSet("c0", "05:45"), NAMES, null));
+		
+		p.setProperty("format", StringTimeOfDayUserType.FORMAT_24_HOUR);
+		type.setParameterValues(p);
+		assertEquals("17:45", boundValue(type, new TimeOfDay(17, 45)));
+		
+		p.setProperty("format", "h:mm a");
+		try {
+			type.setParameterValues(p);
+			fail();
+		}
+		catch (HibernateException e) {}
+	}
+	
+	public void testInvalidString() throws Exception {
+		String[] invalid = { "", ":", "05", "05:", ":30", "05:30:00", "005:30", "05:300", "5h30", " 05:30" };
+		for (int i = 0; i < invalid.length; i++) {
+			try {
+				new StringTimeOfDayUserType().nullSafeGet(new StubResultSet("c0", invalid[i]), NAMES, null);
+				fail(invalid[i]);
+			}
+			catch (HibernateException e) {}
+		}
+	}
+	
+	/**
+	 * One instance is shared by every session using the mapping.
+	 */
+	public void testStringConcurrentSessions() throws Exception {
+		final UserType type = new StringTimeOfDayUserType();
+		final Throwable[] failure = new Throwable[1];
+		Thread[] threads = new Thread[8];
+		
+		for (int t = 0; t < threads.length; t++) {
+			final int offset = t;
+			threads[t] = new Thread() {
+				public void run() {
+					try {
+						for (int i = 0; i < 20000; i++) {
+							int minute = (i * 7 + offset * 131) % (24 * 60);
+							TimeOfDay expected = new TimeOfDay(minute / 60, minute % 60);
+							Object bound = boundValue(type, expected);
+							assertEquals(expected, type.nullSafeGet(new StubResultSet("c0", bound), NAMES, null));
+						}
+					}
+					catch (Throwable e) {
+						synchronized (failure) {
+							failure[0] = e;
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (int t = 0; t < threads.length; t++) {
+			threads[t].join();
+		}
+		synchronized (failure) {
+			if (failure[0] != null) {
+				throw new Exception(failure[0]);
+			}
+		}
+	}
+	
+	public void testNumeric() throws Exception {
+		TimeOfDay value = new TimeOfDay(17, 45, 12, 3);
+		
+		assertNumeric(null, new Long(63912003), value, value);
+		assertNumeric("seconds", new Long(63912), value, new TimeOfDay(17, 45, 12));
+		assertNumeric("minutes", new Long(1065), value, new TimeOfDay(17, 45));
+		
+		NumericTimeOfDayUserType type = new NumericTimeOfDayUserType();
+		assertEquals(Types.INTEGER, type.sqlTypes()[0]);
+		assertNull(type.nullSafeGet(new StubResultSet("c0", null), NAMES, null));
+		try {
+			type.nullSafeGet(new StubResultSet("c0", new Integer(24 * 60 * 60 * 1000)), NAMES, null);
+			fail();
+		}
+		catch (HibernateException e) {}
+		try {
+			Properties p = new Properties();
+			p.setProperty("resolution", "hours");
+			type.setParameterValues(p);
+			fail();
+		}
+		catch (HibernateException e) {}
+	}
+	
+	public void testAnchoredTimestamp() throws Exception {
+		TimestampTimeOfDayUserType type = new TimestampTimeOfDayUserType();
+		Properties p = new Properties();
+		p.setProperty("anchorDate", "1970-01-01");
+		type.setParameterValues(p);
+		
+		TimeOfDay[] values = { new TimeOfDay(0, 0), new TimeOfDay(5, 30, 15, 2), new TimeOfDay(23, 59, 59, 999) };
+		for (int i = 0; i < values.length; i++) {
+			Timestamp stored = (Timestamp)boundValue(type, values[i]);
+			Timestamp expected = new Timestamp(new LocalDateTime(1970, 1, 1, values[i].getHourOfDay(), values[i].getMinuteOfHour(), values[i].getSecondOfMinute(), values[i].getMillisOfSecond()).toDateTime().getMillis());
+			
+			assertEquals(expected, stored);
+			assertEquals(values[i], type.nullSafeGet(new StubResultSet("c0", stored), NAMES, null));
+		}
+		
+		// equal times are written identically whenever they are written
+		assertEquals(boundValue(type, new TimeOfDay(5, 30)), boundValue(type, new TimeOfDay(5, 30)));
+		
+		p.setProperty("anchorDate", "noon");
+		try {
+			type.setParameterValues(p);
+			fail();
+		}
+		catch (HibernateException e) {}
+	}
+	
+	/**
+	 * The second-level cache holds a {@link TimeOfDay} as its millisecond of day.
+	 */
+	public void testDisassemble() throws Exception {
+		UserType[] types = { new AnsiTimeOfDay(), new StringTimeOfDayUserType(), new TimestampTimeOfDayUserType(), new NumericTimeOfDayUserType() };
+		TimeOfDay tmd = new TimeOfDay(17, 45, 30, 250);
+		
+		for (int i = 0; i < types.length; i++) {
+			assertEquals(new Integer(63930250), types[i].disassemble(tmd));
+			assertEquals(tmd, types[i].assemble(types[i].disassemble(tmd), null));
+			assertNull(types[i].disassemble(null));
+			assertNull(types[i].assemble(null, null));
+			// entries cached before the millisecond of day was
+			assertSame(tmd, types[i].assemble(tmd, null));
+		}
+	}
+	
+	public void testEquals() throws Exception {
+		UserType t = new NumericTimeOfDayUserType();
+		TimeOfDay tmd = new TimeOfDay(17, 45, 30, 250);
+		TimeOfDay copy = new TimeOfDay(17, 45, 30, 250);
+		
+		assertTrue(t.equals(tmd, copy));
+		assertEquals(t.hashCode(tmd), t.hashCode(copy));
+		assertFalse(t.equals(tmd, tmd.plusMillis(1)));
+		assertFalse(t.equals(tmd, tmd.plusHours(1)));
+		assertTrue(t.equals(null, null));
+		assertFalse(t.equals(tmd, null));
+		assertFalse(t.equals(null, tmd));
+		assertFalse(t.equals(tmd, new TimeOfDay(17, 45, 30, 250, CopticChronology.getInstance())));
+	}
+	
+	private void assertNumeric(String resolution, Object stored, TimeOfDay value, TimeOfDay expected) throws Exception {
+		NumericTimeOfDayUserType type = new NumericTimeOfDayUserType();
+		Properties p = new Properties();
+		if (resolution != null) {
+			p.setProperty("resolution", resolution);
+		}
+		type.setParameterValues(p);
+		
+		assertEquals(stored, boundValue(type, value));
+		assertEquals(expected, type.nullSafeGet(new StubResultSet("c0", stored), NAMES, null));
+	}
+	
+	private void assertShared(UserType type, Object column, TimeOfDay expected) throws Exception {
+		Object a = type.nullSafeGet(new StubResultSet("c0", column), NAMES, null);
+		Object b = type.nullSafeGet(new StubResultSet("c0", column), NAMES, null);
+		
+		assertEquals(expected, a);
+		assertEquals(expected.getChronology(), ((TimeOfDay)a).getChronology());
+		assertSame(a, b);
+	}
+	
+	private Object boundValue(UserType type, TimeOfDay value) throws Exception {
+		StubPreparedStatement statement = new StubPreparedStatement(1);
+		type.nullSafeSet(statement, value, 1);
+		return statement.getValue(1);
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2013, Moss Computing Inc.
+ *
+ * This file is part of joda-persist.
+ *
+ * joda-persist is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * joda-persist is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with joda-persist; see the file COPYING.  If not, write to the
+ * Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is
+ * making a combined work based on this library.  Thus, the terms and
+ * conditions of the GNU General Public License cover the whole
+ * combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent
+ * modules, and to copy and distribute the resulting executable under
+ * terms of your choice, provided that you also meet, for each linked
+ * independent module, the terms and conditions of the license of that
+ * module.  An independent module is a module which is not derived from
+ * or based on this library.  If you modify this library, you may extend
+ * this exception to your version of the library, but you are not
+ * obligated to do so.  If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package test.com.moss.jodapersist;
+
+import java.sql.Timestamp;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+
+import org.hibernate.HibernateException;
+import org.joda.time.Instant;
+
+import com.moss.jodapersist.InstantUserType;
+import com.moss.jodapersist.TimestampInstantUserType;
+
+/**
+ * Timestamp columns should hold exactly what a driver given a Calendar in the storage 
+ * zone would have written, and be read back the same way.
+ */
+public class TimestampStorageZoneTest extends TestCase {
+	private static final String[] NAMES = { "c0" };
+	private static final String[] ZONES = { 
+		"America/New_York", "Europe/London", "Australia/Lord_Howe", "Asia/Kolkata", "UTC" 
+	};
+	private static final long
+		YEAR_2006 = 1136073600000L,
+		MINUTE = 60 * 1000L,
+		QUARTER_HOUR = 15 * MINUTE,
+		NOON = 12 * 60 * MINUTE,
+		DAY = 24 * 60 * MINUTE,
+		YEAR = 365 * 24 * 60 * 60 * 1000L,
+		YEAR_1900 = -2208988800000L,
+		YEAR_2100 = 4102444800000L;
+	
+	private static final String[] CONVERSIONS = { "calendar", "offsets" };
+	
+	public void testMatchesCalendarConversion() throws Exception {
+		for (int c = 0; c < CONVERSIONS.length; c++) {
+			assertMatchesCalendarConversion(CONVERSIONS[c]);
+		}
+	}
+	
+	private void assertMatchesCalendarConversion(String conversion) throws Exception {
+		for (int i = 0; i < ZONES.length; i++) {
+			InstantUserType type = timestampType(ZONES[i], conversion);
+			TimeZone zone = TimeZone.getTimeZone(ZONES[i]);
+			
+			for (long millis = YEAR_2006; millis < YEAR_2006 + YEAR; millis += QUARTER_HOUR) {
+				assertConvertsLikeCalendar(type, zone, millis);
+			}
+			
+			Random random = new Random(ZONES[i].hashCode());
+			for (int j = 0; j < 10000; j++) {
+				long millis = YEAR_1900 + (long)(random.nextDouble() * (YEAR_2100 - YEAR_1900));
+				assertConvertsLikeCalendar(type, zone, millis);
+			}
+		}
+	}
+	
+	private void assertConvertsLikeCalendar(InstantUserType type, TimeZone zone, long millis) throws Exception {
+		StubPreparedStatement statement = new StubPreparedStatement(1);
+		type.nullSafeSet(statement, new Instant(millis), 1);
+		
+		// the column holds the bound value's wall-clock time in the JVM's zone
+		Timestamp stored = StubResultSet.reinterpret((Timestamp)statement.getValue(1), TimeZone.getDefault(), TimeZone.getDefault());
+		Timestamp expected = StubResultSet.reinterpret(new Timestamp(millis), zone, TimeZone.getDefault());
+		assertEquals(zone.getID() + " " + new Instant(millis), expected, stored);
+		
+		Instant read = (Instant)type.nullSafeGet(new StubResultSet(NAMES, new Object[] { stored }), NAMES, null);
+		long expectedRead = StubResultSet.reinterpret(stored, TimeZone.getDefault(), zone).getTime();
+		assertEquals(zone.getID() + " " + new Instant(millis), expectedRead, read.getMillis());
+	}
+	
+	/**
+	 * The user types are shared by every session of a SessionFactory.
+	 */
+	public void testConcurrentSessions() throws Exception {
+		for (int c = 0; c < CONVERSIONS.length; c++) {
+			assertConcurrentSessions(CONVERSIONS[c]);
+		}
+	}
+	
+	private void assertConcurrentSessions(String conversion) throws Exception {
+		final InstantUserType type = timestampType("America/New_York", conversion);
+		final Throwable[] failure = new Throwable[1];
+		Thread[] threads = new Thread[8];
+		
+		for (int i = 0; i < threads.length; i++) {
+			final long seed = i;
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						Random random = new Random(seed);
+						StubPreparedStatement statement = new StubPreparedStatement(1);
+						StubResultSet resultSet = new StubResultSet(NAMES, new Object[1]);
+						
+						for (int j = 0; j < 20000; j++) {
+							// daytime in New York, well clear of the hour repeated when the clocks go back
+							Instant instant = new Instant(YEAR_2006 + random.nextInt(365) * DAY + NOON + random.nextInt(6 * 60) * MINUTE);
+							type.nullSafeSet(statement, instant, 1);
+							resultSet.setValue(1, statement.getValue(1));
+							Instant read = (Instant)type.nullSafeGet(resultSet, NAMES, null);
+							
+							if (!instant.equals(read)) {
+								throw new AssertionError(instant + " was read back as " + read);
+							}
+						}
+					}
+					catch (Throwable t) {
+						failure[0] = t;
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+		}
+		
+		if (failure[0] != null) {
+			throw new Exception(failure[0]);
+		}
+	}
+	
+	public void testUnknownTimezone() {
+		Properties p = new Properties();
+		p.setProperty("timezone", "America/Nowhere");
+		
+		try {
+			new TimestampInstantUserType().setParameterValues(p);
+			fail();
+		}
+		catch (HibernateException expected) {
+		}
+	}
+	
+	/**
+	 * IDs which TimeZone knows under another ID were accepted before storage zones were
+	 * introduced, and still should be.
+	 */
+	public void testNonCanonicalTimezone() throws Exception {
+		InstantUserType type = timestampType("GMT+5", "calendar");
+		assertConvertsLikeCalendar(type, TimeZone.getTimeZone("GMT+05:00"), YEAR_2006);
+		
+		timestampType("GMT", "calendar");
+	}
+	
+	public void testUnknownZoneConversion() {
+		try {
+			timestampType("America/New_York", "driver");
+			fail();
+		}
+		catch (HibernateException expected) {
+		}
+	}
+	
+	private static InstantUserType timestampType(String timezone, String conversion) {
+		Properties p = new Properties();
+		p.setProperty("timezone", timezone);
+		p.setProperty("zoneConversion", conversion);
+		
+		InstantUserType type = new TimestampInstantUserType();
+		type.setParameterValues(p);
+		return type;
+	}
+}
@@ -37,25 +37,227 @@
  */
 package test.com.moss.jodapersist;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Properties;
+
 import junit.framework.TestCase;
 
+import org.hibernate.HibernateException;
+import org.joda.time.Days;
 import org.joda.time.YearMonthDay;
+import org.joda.time.chrono.BuddhistChronology;
 
+import com.moss.jodapersist.DateYearMonthDayUserType;
+import com.moss.jodapersist.EpochDayYearMonthDayUserType;
+import com.moss.jodapersist.IntegerYearMonthDayUserType;
 import com.moss.jodapersist.NumericYearMonthDayUserType;
+import com.moss.jodapersist.StringYearMonthDayUserType;
+import com.moss.jodapersist.TimestampYearMonthDayUserType;
 import com.moss.jodapersist.YearMonthDayUserType;
 
 public class YearMonthDayUserTypeTest extends TestCase {
 
 	/**
-	 * {@link YearMonthDay} implements Serializable, so the assemble/disassemble methods
-	 * of the YearMonthDayUserType should always return the same YearMonthDay variable
-	 * that is passed to them.
+	 * The second-level cache holds a {@link YearMonthDay} as a packed yyyymmdd value.
 	 */
 	public void testSerializable() {
 		YearMonthDayUserType t = new NumericYearMonthDayUserType();
-		YearMonthDay ymd = new YearMonthDay();
+		YearMonthDay ymd = new YearMonthDay(2006, 5, 1);
+		
+		assertEquals(new Integer(20060501), t.disassemble(ymd));
+		assertEquals(ymd, t.assemble(t.disassemble(ymd), null));
+		assertNull(t.disassemble(null));
+		assertNull(t.assemble(null, null));
+		
+		// entries cached before the packed form were
+		assertSame(ymd, t.assemble(ymd, null));
+	}
+	
+	public void testEquals() {
+		YearMonthDayUserType t = new NumericYearMonthDayUserType();
+		YearMonthDay ymd = new YearMonthDay(2006, 5, 1);
+		YearMonthDay copy = new YearMonthDay(2006, 5, 1);
+		
+		assertTrue(t.equals(ymd, copy));
+		assertEquals(t.hashCode(ymd), t.hashCode(copy));
+		assertFalse(t.equals(ymd, ymd.plusDays(1)));
+		assertFalse(t.equals(ymd, ymd.plusYears(1)));
+		assertTrue(t.equals(null, null));
+		assertFalse(t.equals(ymd, null));
+		assertFalse(t.equals(null, ymd));
+		assertFalse(t.equals(ymd, new YearMonthDay(2006, 5, 1, BuddhistChronology.getInstance())));
+	}
+	
+	public void testUncachedByDefault() throws Exception {
+		YearMonthDayUserType t = new NumericYearMonthDayUserType();
+		t.setParameterValues(new Properties());
+		
+		Object a = t.nullSafeGet(new StubResultSet("c0", new Long(20060501)), new String[] { "c0" }, null);
+		Object b = t.nullSafeGet(new StubResultSet("c0", new Long(20060501)), new String[] { "c0" }, null);
+		
+		assertEquals(new YearMonthDay(2006, 5, 1), a);
+		assertEquals(a, b);
+		assertNotSame(a, b);
+	}
+	
+	public void testCacheSharesInstances() throws Exception {
+		assertCacheShares(new NumericYearMonthDayUserType(), new Long(20060501));
+		assertCacheShares(new StringYearMonthDayUserType(), "2006-05-01");
 		
-		assertEquals(ymd, t.disassemble(ymd));
-		assertEquals(ymd, t.assemble(ymd, null));
+		StubPreparedStatement statement = new StubPreparedStatement(1);
+		new TimestampYearMonthDayUserType().nullSafeSet(statement, new YearMonthDay(2006, 5, 1), 1);
+		assertCacheShares(new TimestampYearMonthDayUserType(), statement.getValue(1));
+	}
+	
+	/**
+	 * Colliding dates evict each other but must never be confused.
+	 */
+	public void testCacheReturnsRequestedDate() throws Exception {
+		YearMonthDayUserType t = cached(new NumericYearMonthDayUserType(), "4");
+		YearMonthDay day = new YearMonthDay(1999, 12, 1);
+		
+		for (int i = 0; i < 1000; i++) {
+			YearMonthDay expected = day.plusDays(i % 97);
+			assertEquals(expected, t.longToYearMonthDay(t.yearMonthDayToLong(expected)));
+		}
+		
+		assertNull(t.nullSafeGet(new StubResultSet("c0", null), new String[] { "c0" }, null));
+	}
+	
+	public void testInvalidCacheSize() {
+		try {
+			cached(new NumericYearMonthDayUserType(), "lots");
+			fail();
+		}
+		catch (HibernateException e) {}
+	}
+	
+	public void testIntegerFormat() throws Exception {
+		YearMonthDayUserType t = new IntegerYearMonthDayUserType();
+		StubPreparedStatement statement = new StubPreparedStatement(1);
+		t.nullSafeSet(statement, new YearMonthDay(2006, 5, 1), 1);
+		
+		assertEquals(java.sql.Types.INTEGER, t.sqlTypes()[0]);
+		assertEquals(new Long(20060501), statement.getValue(1));
+		assertEquals(new YearMonthDay(2006, 5, 1), t.nullSafeGet(new StubResultSet("c0", new Integer(20060501)), new String[] { "c0" }, null));
+		
+		t.nullSafeSet(statement, null, 1);
+		assertEquals(java.sql.Types.INTEGER, statement.getNullType(1));
+	}
+	
+	/**
+	 * Checked against Joda's own day arithmetic, across leap centuries in both directions
+	 * from the epoch.
+	 */
+	public void testEpochDayFormat() throws Exception {
+		YearMonthDayUserType t = new EpochDayYearMonthDayUserType();
+		StubPreparedStatement statement = new StubPreparedStatement(1);
+		StubResultSet resultSet = new StubResultSet("c0", null);
+		
+		assertEquals(java.sql.Types.INTEGER, t.sqlTypes()[0]);
+		
+		YearMonthDay epoch = new YearMonthDay(1970, 1, 1);
+		YearMonthDay day = new YearMonthDay(1599, 12, 1);
+		YearMonthDay end = new YearMonthDay(2401, 3, 1);
+		while (day.isBefore(end)) {
+			t.nullSafeSet(statement, day, 1);
+			long epochDay = ((Long)statement.getValue(1)).longValue();
+			assertEquals(day.toString(), Days.daysBetween(epoch, day).getDays(), epochDay);
+			
+			resultSet.setValue(1, new Integer((int)epochDay));
+			assertEquals(day, t.nullSafeGet(resultSet, new String[] { "c0" }, null));
+			
+			day = day.plusDays(1);
+		}
+		
+		resultSet.setValue(1, null);
+		assertNull(t.nullSafeGet(resultSet, new String[] { "c0" }, null));
+	}
+	
+	/**
+	 * The database has to see the same calendar date, whatever the JVM's zone and 
+	 * including days that start with a DST transition.
+	 */
+	public void testDateFormat() throws Exception {
+		YearMonthDayUserType t = new DateYearMonthDayUserType();
+		assertEquals(java.sql.Types.DATE, t.sqlTypes()[0]);
+		
+		Class.forName("org.hsqldb.jdbcDriver");
+		Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:dates", "sa", "");
+		Statement statement = connection.createStatement();
+		statement.execute("create table dates (id integer, d date)");
+		
+		PreparedStatement insert = connection.prepareStatement("insert into dates values (?, ?)");
+		YearMonthDay first = new YearMonthDay(1969, 12, 1);
+		for (int i = 0; i < 14000; i++) {
+			insert.setInt(1, i);
+			t.nullSafeSet(insert, i == 0 ? null : first.plusDays(i), 2);
+			insert.executeUpdate();
+		}
+		insert.close();
+		
+		ResultSet rs = statement.executeQuery("select d, cast(d as varchar) from dates order by id");
+		for (int i = 0; i < 14000; i++) {
+			assertTrue(rs.next());
+			YearMonthDay expected = i == 0 ? null : first.plusDays(i);
+			assertEquals(expected, t.nullSafeGet(rs, new String[] { "d" }, null));
+			assertEquals(expected == null ? null : expected.toString(), rs.getString(2));
+		}
+		
+		statement.execute("drop table dates");
+		statement.close();
+		connection.close();
+	}
+	
+	public void testStringFormat() throws Exception {
+		YearMonthDayUserType t = new StringYearMonthDayUserType();
+		YearMonthDay[] dates = {
+			new YearMonthDay(2006, 5, 1),
+			new YearMonthDay(1999, 12, 31),
+			new YearMonthDay(42, 1, 9),
+			new YearMonthDay(9999, 10, 10)
+		};
+		
+		for (int i = 0; i < dates.length; i++) {
+			StubPreparedStatement statement = new StubPreparedStatement(1);
+			t.nullSafeSet(statement, dates[i], 1);
+			
+			assertEquals(dates[i].toString(), statement.getValue(1));
+			assertEquals(dates[i], t.nullSafeGet(new StubResultSet("c0", statement.getValue(1)), new String[] { "c0" }, null));
+		}
+		
+		assertEquals(new YearMonthDay(2006, 5, 1), t.nullSafeGet(new StubResultSet("c0", "2006-5-1"), new String[] { "c0" }, null));
+	}
+	
+	public void testInvalidString() throws Exception {
+		String[] invalid = { "", "2006", "2006-05", "2006-05-", "-05-01", "2006-05-01-", "2006/05/01", "2006-005-01", "2006-05-01 ", "123456-01-01" };
+		for (int i = 0; i < invalid.length; i++) {
+			try {
+				new StringYearMonthDayUserType().nullSafeGet(new StubResultSet("c0", invalid[i]), new String[] { "c0" }, null);
+				fail(invalid[i]);
+			}
+			catch (HibernateException e) {}
+		}
+	}
+	
+	private void assertCacheShares(YearMonthDayUserType t, Object columnValue) throws Exception {
+		cached(t, "1024");
+		
+		Object a = t.nullSafeGet(new StubResultSet("c0", columnValue), new String[] { "c0" }, null);
+		Object b = t.nullSafeGet(new StubResultSet("c0", columnValue), new String[] { "c0" }, null);
+		
+		assertEquals(new YearMonthDay(2006, 5, 1), a);
+		assertSame(a, b);
+	}
+	
+	private YearMonthDayUserType cached(YearMonthDayUserType t, String cacheSize) {
+		Properties p = new Properties();
+		p.setProperty("cacheSize", cacheSize);
+		t.setParameterValues(p);
+		return t;
 	}
 }